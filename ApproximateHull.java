@@ -0,0 +1,280 @@
+import java.util.Arrays;
+
+/*
+ * An approximation of the convex hull, for when a coarse hull of a very large
+ * dataset is enough, see ConvexHull.findHullApprox. The x-range of the points
+ * is split into strips of equal width, and a single pass over the points finds
+ * the lowest and the highest point of every strip, as in the approximation of
+ * Bentley, Faust and Preparata. The approximate hull is the hull of those
+ * points and the points with the smallest and largest x-coordinate, found with
+ * the monotone chain, since they are already in order of x.
+ * 
+ * The approximate hull is inside the exact one, and every point is at most
+ * error away from it: a point is between the lowest and the highest point of
+ * its strip, and the edge between those two crosses its height within the
+ * strip. So error is a bound on the Hausdorff distance between the two hulls,
+ * and it is never more than the width of a strip less one, which is chosen from
+ * the epsilon the caller asks for. The pass takes O(n) time and the rest
+ * O(k log k) for k strips.
+ */
+public class ApproximateHull {
+    // The most strips a pass may use, every chunk of the pass keeps two points
+    // per strip
+    static final int MAX_STRIPS = 1 << 20;
+
+    // The corners of the approximate hull, counterclockwise starting at the one
+    // with the largest x-coordinate, the lower one if there are two
+    public final IntList corners;
+    public final double epsilon; // The largest error the caller allows
+    public final int strips; // The number of strips, k
+    public final double error; // A bound on the distance from any point to the hull
+
+    private ApproximateHull(IntList corners, double epsilon, int strips, double error) {
+        this.corners = corners;
+        this.epsilon = epsilon;
+        this.strips = strips;
+        this.error = error;
+    }
+
+    /*
+     * Finds the approximate hull of a dataset. The strips are a power of two
+     * columns wide, the widest such strips whose error is at most epsilon, so the
+     * strip of a point is found with a shift.
+     * 
+     * @param epsilon The largest distance from a point to the approximate hull the
+     * caller allows, at least 0
+     * 
+     * @param engine The engine to run the pass with, or null to do it in this
+     * thread
+     * 
+     * @return The approximate hull, with error at most epsilon
+     */
+    static ApproximateHull find(ConvexHull hull, double epsilon, HullEngine engine) {
+        if (!(epsilon >= 0)) {
+            throw new IllegalArgumentException("epsilon must be at least 0: " + epsilon);
+        }
+        int n = hull.n;
+        if (n == 0) {
+            return new ApproximateHull(new IntList(), epsilon, 0, 0);
+        }
+
+        int[] x = hull.x, y = hull.y;
+        int minX = x[hull.extremes.minX];
+        int maxX = x[hull.extremes.maxX];
+        long columns = (long) Math.min(epsilon, 1L << 32) + 1;
+        int shift = 63 - Long.numberOfLeadingZeros(columns);
+        long numStrips = ((long) maxX - minX >> shift) + 1;
+        if (numStrips > MAX_STRIPS) {
+            throw new IllegalArgumentException("epsilon " + epsilon + " needs " + numStrips
+                    + " strips, more than " + MAX_STRIPS + ", use the exact hull");
+        }
+        int k = (int) numStrips;
+
+        // The lowest and highest point of every strip, the lowest index on ties.
+        // A chunk gets at least a few points per strip, so the arrays cost no more
+        // than the pass.
+        int numChunks = engine == null ? 1 : Math.max(1, Math.min(engine.numChunks(n), n / (4 * k)));
+        int[][] parts = new int[numChunks][];
+        if (numChunks == 1) {
+            parts[0] = scan(x, y, 0, n, minX, shift, k);
+        } else {
+            engine.forEachChunk(numChunks, c -> parts[c] = scan(x, y, HullEngine.chunkStart(c, numChunks, n),
+                    HullEngine.chunkStart(c + 1, numChunks, n), minX, shift, k));
+        }
+        int[] ends = parts[0];
+        for (int c = 1; c < numChunks; c++) {
+            merge(ends, parts[c], y);
+        }
+
+        // The candidates in order of x and then y, by strip. Points at the same
+        // place are kept once, the one with the lowest index.
+        long[] points = new long[2 * k + 2];
+        int[] indices = new int[2 * k + 2];
+        int len = 0;
+        for (int s = 0; s < k; s++) {
+            int start = len;
+            if (s == 0) {
+                len = insert(hull.extremes.minX, points, indices, start, len, x, y);
+            }
+            if (ends[2 * s] != -1) {
+                len = insert(ends[2 * s], points, indices, start, len, x, y);
+                len = insert(ends[2 * s + 1], points, indices, start, len, x, y);
+            }
+            if (s == k - 1) {
+                len = insert(hull.extremes.maxX, points, indices, start, len, x, y);
+            }
+        }
+
+        long[] chain = new long[2 * len + 1];
+        int h = MonotoneChain.corners(points, 0, len, chain, hull.narrow);
+
+        // Start at the first corner with the largest x-coordinate
+        int first = 0;
+        while (PackedPoints.x(chain[first]) != maxX) {
+            first++;
+        }
+        IntList corners = new IntList(h);
+        for (int i = 0; i < h; i++) {
+            long corner = chain[(first + i) % h];
+            corners.add(indices[Arrays.binarySearch(points, 0, len, corner)]);
+        }
+
+        double error = error(chain, h, ends, minX, maxX, shift, k, x, y);
+        return new ApproximateHull(corners, epsilon, k, error);
+    }
+
+    /*
+     * Finds the lowest and the highest point of every strip among the points with
+     * indices in [from, to).
+     * 
+     * @return The lowest point of strip s at 2 * s and the highest at 2 * s + 1,
+     * -1 if the strip has no points
+     */
+    private static int[] scan(int[] x, int[] y, int from, int to, int minX, int shift, int k) {
+        int[] ends = new int[2 * k];
+        Arrays.fill(ends, -1);
+        for (int i = from; i < to; i++) {
+            int s = 2 * (int) ((long) x[i] - minX >> shift);
+            if (ends[s] == -1) {
+                ends[s] = ends[s + 1] = i;
+            } else if (y[i] < y[ends[s]]) {
+                ends[s] = i;
+            } else if (y[i] > y[ends[s + 1]]) {
+                ends[s + 1] = i;
+            }
+        }
+        return ends;
+    }
+
+    /*
+     * Merges the strips of a chunk with higher indices into these. A point from
+     * the other chunk only wins if it is strictly lower or higher.
+     */
+    private static void merge(int[] ends, int[] other, int[] y) {
+        for (int s = 0; s < ends.length; s += 2) {
+            if (other[s] == -1) {
+                continue;
+            }
+            if (ends[s] == -1) {
+                ends[s] = other[s];
+                ends[s + 1] = other[s + 1];
+                continue;
+            }
+            if (y[other[s]] < y[ends[s]]) {
+                ends[s] = other[s];
+            }
+            if (y[other[s + 1]] > y[ends[s + 1]]) {
+                ends[s + 1] = other[s + 1];
+            }
+        }
+    }
+
+    /*
+     * Inserts a point into the sorted candidates of a strip, in points[start,
+     * len), unless a point at the same place with a lower index is there already.
+     * 
+     * @return The new number of candidates
+     */
+    private static int insert(int p, long[] points, int[] indices, int start, int len, int[] x, int[] y) {
+        long xy = PackedPoints.pack(x[p], y[p]);
+        int i = len;
+        while (i > start && points[i - 1] > xy) {
+            i--;
+        }
+        if (i > start && points[i - 1] == xy) {
+            indices[i - 1] = Math.min(indices[i - 1], p);
+            return len;
+        }
+        System.arraycopy(points, i, points, i + 1, len - i);
+        System.arraycopy(indices, i, indices, i + 1, len - i);
+        points[i] = xy;
+        indices[i] = p;
+        return len + 1;
+    }
+
+    /*
+     * Bounds the distance from any point to the approximate hull. The points of a
+     * strip are in the rectangle spanned by its columns and its lowest and
+     * highest point, and the distance to a convex set is largest at a corner of
+     * the rectangle. A corner is no further from the hull than from the lowest or
+     * highest point at its height, or than from the hull straight above or below
+     * it, whichever is closer.
+     * 
+     * @param chain The corners of the approximate hull, counterclockwise starting
+     * with the smallest, and the smallest again at position h
+     */
+    private static double error(long[] chain, int h, int[] ends, int minX, int maxX, int shift, int k, int[] x,
+            int[] y) {
+        if (h < 2) {
+            return 0;
+        }
+
+        // The lower half from the smallest to the largest corner, and the upper
+        // half, both in order of x
+        int largest = 0;
+        for (int i = 1; i < h; i++) {
+            if (chain[i] > chain[largest]) {
+                largest = i;
+            }
+        }
+        long[] lower = Arrays.copyOfRange(chain, 0, largest + 1);
+        long[] upper = new long[h - largest + 1];
+        for (int i = 0; i < upper.length; i++) {
+            upper[i] = chain[h - i];
+        }
+
+        double error = 0;
+        for (int s = 0; s < k; s++) {
+            if (ends[2 * s] == -1) {
+                continue;
+            }
+            long left = (long) minX + ((long) s << shift);
+            long right = Math.min(left + (1L << shift) - 1, maxX);
+            for (int i = 2 * s; i <= 2 * s + 1; i++) {
+                int p = ends[i];
+                error = Math.max(error, cornerError(left, p, lower, upper, x, y));
+                error = Math.max(error, cornerError(right, p, lower, upper, x, y));
+            }
+        }
+        return error;
+    }
+
+    /*
+     * Bounds the distance from the corner of a rectangle at an x-coordinate and
+     * the height of point p to the hull.
+     */
+    private static double cornerError(long cx, int p, long[] lower, long[] upper, int[] x, int[] y) {
+        double above = y[p] - height(upper, cx, true);
+        double below = height(lower, cx, false) - y[p];
+        return Math.min(Math.abs(x[p] - cx), Math.max(0, Math.max(above, below)));
+    }
+
+    /*
+     * Returns the height of a half of the hull at an x-coordinate within it. Where
+     * the half has a vertical edge, the top of the edge is used for the upper half
+     * and the bottom for the lower one.
+     * 
+     * @param half The corners of the half in order of x
+     */
+    private static double height(long[] half, long x, boolean upper) {
+        int lo = 0, hi = half.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (PackedPoints.x(half[mid]) < x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        if (PackedPoints.x(half[lo]) == x) {
+            int height = PackedPoints.y(half[lo]);
+            for (int i = lo + 1; i < half.length && PackedPoints.x(half[i]) == x; i++) {
+                height = upper ? Math.max(height, PackedPoints.y(half[i])) : Math.min(height, PackedPoints.y(half[i]));
+            }
+            return height;
+        }
+        long a = half[lo - 1], b = half[lo];
+        return PackedPoints.y(a) + (double) ((long) PackedPoints.y(b) - PackedPoints.y(a))
+                * (x - PackedPoints.x(a)) / ((long) PackedPoints.x(b) - PackedPoints.x(a));
+    }
+}
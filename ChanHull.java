@@ -0,0 +1,228 @@
+import java.util.Arrays;
+
+/*
+ * Chan's output-sensitive algorithm, which takes O(n log h) time. The points are
+ * split into groups of m points and the hull of every group is found with the
+ * monotone chain. The hull is then wrapped like the gift wrapping algorithm,
+ * but the next corner is found with a binary search on every group hull
+ * instead of by looking at every point. If the hull has not closed after m
+ * corners, m was too small, and everything is redone with m squared.
+ */
+class ChanHull {
+    private final long[] points;
+    private final int len;
+    private final boolean narrow;
+
+    // The hulls of the groups, group g has its corners in
+    // hulls[start[g], start[g] + size[g]), and its largest corner at top[g]
+    private long[] hulls;
+    private int[] start, size, top;
+    private int groups;
+
+    private ChanHull(long[] points, boolean narrow) {
+        this.points = points;
+        this.len = points.length;
+        this.narrow = narrow;
+    }
+
+    /*
+     * Finds the convex hull of the dataset, in the same order as
+     * ConvexHull.findHullSeq.
+     * 
+     * @return The convex hull of the dataset
+     */
+    static IntList findHull(ConvexHull hull) {
+        ChanHull chan = new ChanHull(hull.packedPoints(), hull.narrow);
+        for (int t = 1;; t++) {
+            // m = 2^(2^t), the last try has a single group and always succeeds
+            int m = t >= 5 ? chan.len : (int) Math.min(chan.len, 1L << (1 << t));
+            long[] corners = chan.wrap(Math.max(m, 1));
+            if (corners != null) {
+                return HullBoundary.of(hull, corners, corners.length, null);
+            }
+        }
+    }
+
+    /*
+     * Tries to wrap the hull with groups of m points.
+     * 
+     * @return The corners of the hull, counterclockwise, or null if it has more
+     * than m corners
+     */
+    private long[] wrap(int m) {
+        groupHulls(m);
+        if (len == 0) {
+            return new long[0];
+        }
+
+        // The smallest point is a corner
+        long first = hulls[start[0]];
+        for (int g = 1; g < groups; g++) {
+            first = Math.min(first, hulls[start[g]]);
+        }
+
+        long[] corners = new long[m];
+        long p = first;
+        for (int h = 0; h < m; h++) {
+            corners[h] = p;
+
+            // The next corner is the candidate all the others are to the left of,
+            // or the furthest away if they are on the same line
+            long next = p;
+            for (int g = 0; g < groups; g++) {
+                int q = tangent(g, p);
+                if (q == -1) {
+                    continue;
+                }
+                long candidate = hulls[q];
+                int turn = next == p ? -1 : Orientation.orientation(p, next, candidate, narrow);
+                if (turn < 0 || (turn == 0 && further(p, candidate, next))) {
+                    next = candidate;
+                }
+            }
+            if (next == p || next == first) {
+                return Arrays.copyOf(corners, h + 1);
+            }
+            p = next;
+        }
+        return null;
+    }
+
+    /*
+     * Splits the points into groups of m and finds the hull of every group.
+     */
+    private void groupHulls(int m) {
+        groups = (len + m - 1) / m;
+        hulls = new long[len];
+        start = new int[groups];
+        size = new int[groups];
+        top = new int[groups];
+
+        long[] group = new long[m];
+        long[] corners = new long[2 * m + 1];
+        int end = 0;
+        for (int g = 0; g < groups; g++) {
+            int from = g * m;
+            int to = Math.min(len, from + m);
+            System.arraycopy(points, from, group, 0, to - from);
+            Arrays.sort(group, 0, to - from);
+            int h = MonotoneChain.corners(group, 0, to - from, corners, narrow);
+
+            start[g] = end;
+            size[g] = h;
+            int largest = 0;
+            for (int i = 1; i < h; i++) {
+                if (corners[i] > corners[largest]) {
+                    largest = i;
+                }
+            }
+            top[g] = largest;
+            System.arraycopy(corners, 0, hulls, end, h);
+            end += h;
+        }
+    }
+
+    /*
+     * Finds the corner of a group hull which all of the group is to the left of,
+     * seen from p, the furthest one if there are two. p is a corner of the whole
+     * hull, so it is either outside the group hull or one of its corners.
+     * 
+     * @return The position of the corner in hulls, or -1 if the group only has p
+     */
+    private int tangent(int g, long p) {
+        int k = size[g];
+        int off = start[g];
+        int j = cornerIndex(g, p);
+        if (j != -1) {
+            return k == 1 ? -1 : off + (j + 1) % k;
+        }
+        if (k == 1) {
+            return off;
+        }
+        if (k == 2) {
+            int turn = Orientation.orientation(p, hulls[off], hulls[off + 1], narrow);
+            if (turn == 0) {
+                return further(p, hulls[off + 1], hulls[off]) ? off + 1 : off;
+            }
+            return turn < 0 ? off + 1 : off;
+        }
+
+        // Seen from p, the angle to the corners decreases along the edges p is to
+        // the right of and increases along the others. The wanted corner is where
+        // it stops decreasing. The search starts at a corner a whose edge does not
+        // point at p, and finds the first corner after a at or past that point.
+        int a = turn(p, off, k, 0) != 0 ? 0 : 1;
+        boolean decreasing = turn(p, off, k, a) < 0;
+        int lo = 1, hi = k;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = (a + mid) % k;
+            boolean increasing = turn(p, off, k, c) >= 0;
+            int side = Orientation.orientation(p, hulls[off + a], hulls[off + c], narrow);
+            boolean past = decreasing ? increasing || side >= 0 : increasing && side < 0;
+            if (past) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        int best = lo == k ? a : (a + lo) % k;
+
+        // A neighbour on the same line from p, which is further away, is better
+        int after = (best + 1) % k;
+        int before = (best + k - 1) % k;
+        int corner = best;
+        if (turn(p, off, k, best) == 0 && further(p, hulls[off + after], hulls[off + corner])) {
+            corner = after;
+        }
+        if (turn(p, off, k, before) == 0 && further(p, hulls[off + before], hulls[off + corner])) {
+            corner = before;
+        }
+        return off + corner;
+    }
+
+    /*
+     * Returns the orientation of the edge from corner i to corner i + 1 of a group
+     * hull seen from p, positive if p is to the left of it.
+     */
+    private int turn(long p, int off, int k, int i) {
+        return Orientation.orientation(p, hulls[off + i], hulls[off + (i + 1) % k], narrow);
+    }
+
+    /*
+     * Finds p among the corners of a group hull. The corners increase from the
+     * first one to the largest one and decrease after it, so this is two binary
+     * searches.
+     * 
+     * @return The index of the corner in the group, or -1 if p is not a corner
+     */
+    private int cornerIndex(int g, long p) {
+        int off = start[g];
+        int i = Arrays.binarySearch(hulls, off, off + top[g] + 1, p);
+        if (i >= 0) {
+            return i - off;
+        }
+        int lo = off + top[g], hi = off + size[g] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (hulls[mid] == p) {
+                return mid - off;
+            } else if (hulls[mid] > p) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Checks if a is further away from p than b, for points on the same line from
+     * p.
+     */
+    private static boolean further(long p, long a, long b) {
+        long px = PackedPoints.x(p), py = PackedPoints.y(p);
+        return Math.abs(PackedPoints.x(a) - px) + Math.abs(PackedPoints.y(a) - py)
+                > Math.abs(PackedPoints.x(b) - px) + Math.abs(PackedPoints.y(b) - py);
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.Arrays;
+
+/*
+ * Finds the convex hull by splitting the points into contiguous chunks and
+ * finding the hull of every chunk on its own, with no coordination between the
+ * threads, and then the hull of the union of the chunk hulls. Unlike
+ * findHullPar, where the first levels of the recursion only have one or two
+ * tasks, every thread has work from the start whatever the shape of the hull.
+ * 
+ * The chunk hulls are found with the monotone chain, after throwing away the
+ * points strictly inside the extreme octagon. They only hold the corners, so
+ * merging them is cheap, and a chunk hull can just as well come from a shard
+ * of the dataset held somewhere else, see merge().
+ */
+class ChunkedHull {
+
+    private ChunkedHull() {
+    }
+
+    /*
+     * Finds the convex hull of the dataset, in the same order as
+     * ConvexHull.findHullSeq.
+     * 
+     * @param engine The engine whose threads find the chunk hulls
+     * 
+     * @return The convex hull of the dataset
+     */
+    static IntList findHull(ConvexHull hull, HullEngine engine) {
+        int n = hull.n;
+        if (n == 0) {
+            return new IntList();
+        }
+        Octagon octagon = Octagon.of(hull.extremes, n, hull.x, hull.y);
+        int numChunks = engine.numChunks(n);
+        long[][] chunkHulls = new long[numChunks][];
+        engine.forEachChunk(numChunks, c -> chunkHulls[c] = corners(hull, octagon,
+                HullEngine.chunkStart(c, numChunks, n), HullEngine.chunkStart(c + 1, numChunks, n)));
+
+        long[] corners = merge(chunkHulls, hull.narrow);
+        return HullBoundary.of(hull, corners, corners.length, engine);
+    }
+
+    /*
+     * Finds the corners of the convex hull of the points in [from, to).
+     * 
+     * @param octagon The extreme octagon of the whole dataset, or null
+     * 
+     * @return The corners as packed points, counterclockwise
+     */
+    static long[] corners(ConvexHull hull, Octagon octagon, int from, int to) {
+        long[] points = new long[to - from];
+        int len = 0;
+        for (int i = from; i < to; i++) {
+            if (octagon == null || !octagon.inside(hull.x[i], hull.y[i])) {
+                points[len++] = PackedPoints.pack(hull.x[i], hull.y[i]);
+            }
+        }
+        return corners(points, len, hull.narrow);
+    }
+
+    /*
+     * Finds the corners of the convex hull of the packed points in points[0, len),
+     * which are sorted in place.
+     * 
+     * @param narrow True if Orientation.fitsLong() is true for the points
+     * 
+     * @return The corners as packed points, counterclockwise
+     */
+    static long[] corners(long[] points, int len, boolean narrow) {
+        Arrays.sort(points, 0, len);
+        long[] corners = new long[2 * len + 1];
+        int h = MonotoneChain.corners(points, 0, len, corners, narrow);
+        return Arrays.copyOf(corners, h);
+    }
+
+    /*
+     * Finds the corners of the convex hull of the union of some hulls.
+     * 
+     * @param hulls The corners of every hull as packed points, in any order
+     * 
+     * @param narrow True if Orientation.fitsLong() is true for the union
+     * 
+     * @return The corners as packed points, counterclockwise
+     */
+    static long[] merge(long[][] hulls, boolean narrow) {
+        int len = 0;
+        for (long[] h : hulls) {
+            len += h.length;
+        }
+        long[] points = new long[len];
+        len = 0;
+        for (long[] h : hulls) {
+            System.arraycopy(h, 0, points, len, h.length);
+            len += h.length;
+        }
+        return corners(points, len, narrow);
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.Arrays;
+
+/*
+ * Finds the convex hull of points on a narrow integer grid, like the ones
+ * NPunkter17 makes, by looking at every x-column only once. Only the lowest
+ * and the highest point of a column can be a corner of the hull, so a single
+ * pass keeps the smallest and largest y of every column in two small arrays,
+ * and the corners are found from those 2 * width candidates with the monotone
+ * chain, without sorting, since they are in order already. The pass is split
+ * into chunks which reduce into arrays of their own, so it is all parallel.
+ * 
+ * The candidates only give the corners. A second pass keeps the points which
+ * may be on an edge, and HullBoundary finds the ones which are, and lists them
+ * the same way as for the other algorithms.
+ */
+class ColumnHull {
+    // The grid is narrow enough if there are at least this many points per column
+    static final int POINTS_PER_COLUMN = 4;
+
+    private ColumnHull() {
+    }
+
+    /*
+     * Checks if the x-range of the dataset is narrow enough for findHull, so the
+     * columns are few compared to the points.
+     */
+    static boolean fits(ConvexHull hull) {
+        if (hull.n == 0) {
+            return false;
+        }
+        long width = (long) hull.x[hull.extremes.maxX] - hull.x[hull.extremes.minX] + 1;
+        return width <= hull.n / POINTS_PER_COLUMN;
+    }
+
+    /*
+     * Finds the convex hull of the dataset, in the same order as
+     * ConvexHull.findHullSeq. The dataset must fit, see fits().
+     * 
+     * @param engine The engine to run the passes with, or null to do it all in
+     * this thread
+     * 
+     * @return The convex hull of the dataset
+     */
+    static IntList findHull(ConvexHull hull, HullEngine engine) {
+        int n = hull.n;
+        int minX = hull.x[hull.extremes.minX];
+        int width = hull.x[hull.extremes.maxX] - minX + 1;
+
+        // Every chunk gets a few points per column, so its arrays cost no more than
+        // its share of the pass
+        int numChunks = engine == null ? 1 : Math.max(1, Math.min(engine.numChunks(n), n / (4 * width)));
+        int[][] lows = new int[numChunks][];
+        int[][] highs = new int[numChunks][];
+        if (numChunks == 1) {
+            reduce(hull, minX, width, 0, n, lows, highs, 0);
+        } else {
+            engine.forEachChunk(numChunks, c -> reduce(hull, minX, width, HullEngine.chunkStart(c, numChunks, n),
+                    HullEngine.chunkStart(c + 1, numChunks, n), lows, highs, c));
+        }
+        int[] low = lows[0], high = highs[0];
+        for (int c = 1; c < numChunks; c++) {
+            for (int col = 0; col < width; col++) {
+                low[col] = Math.min(low[col], lows[c][col]);
+                high[col] = Math.max(high[col], highs[c][col]);
+            }
+        }
+
+        // The candidates in order of x and then y. An empty column has a low above
+        // its high.
+        long[] points = new long[2 * width];
+        int len = 0;
+        for (int col = 0; col < width; col++) {
+            if (low[col] <= high[col]) {
+                points[len++] = PackedPoints.pack(minX + col, low[col]);
+                if (high[col] != low[col]) {
+                    points[len++] = PackedPoints.pack(minX + col, high[col]);
+                }
+            }
+        }
+        long[] corners = new long[2 * len + 1];
+        int h = MonotoneChain.corners(points, 0, len, corners, hull.narrow);
+
+        // A point strictly between the lowest and the highest point of its column is
+        // inside the hull, unless it is on a vertical edge at either end
+        IntList[] candidates = new IntList[numChunks];
+        if (numChunks == 1) {
+            candidates[0] = candidates(hull, minX, width, low, high, 0, n);
+        } else {
+            engine.forEachChunk(numChunks, c -> candidates[c] = candidates(hull, minX, width, low, high,
+                    HullEngine.chunkStart(c, numChunks, n), HullEngine.chunkStart(c + 1, numChunks, n)));
+        }
+        for (int c = 1; c < numChunks; c++) {
+            candidates[0].append(candidates[c]);
+        }
+        return HullBoundary.among(hull, corners, h, candidates[0]);
+    }
+
+    /*
+     * Finds the smallest and largest y of every column among the points with
+     * indices in [from, to), into lows[c] and highs[c].
+     */
+    private static void reduce(ConvexHull hull, int minX, int width, int from, int to, int[][] lows, int[][] highs,
+            int c) {
+        int[] x = hull.x, y = hull.y;
+        int[] low = new int[width];
+        int[] high = new int[width];
+        Arrays.fill(low, Integer.MAX_VALUE);
+        Arrays.fill(high, Integer.MIN_VALUE);
+        for (int i = from; i < to; i++) {
+            int col = x[i] - minX;
+            low[col] = Math.min(low[col], y[i]);
+            high[col] = Math.max(high[col], y[i]);
+        }
+        lows[c] = low;
+        highs[c] = high;
+    }
+
+    /*
+     * Lists the points with indices in [from, to) which may be on the hull, the
+     * lowest and highest points of their columns and all the points of the first
+     * and the last column.
+     * 
+     * @return The candidates, in order of index
+     */
+    private static IntList candidates(ConvexHull hull, int minX, int width, int[] low, int[] high, int from,
+            int to) {
+        int[] x = hull.x, y = hull.y;
+        IntList candidates = new IntList();
+        for (int i = from; i < to; i++) {
+            int col = x[i] - minX;
+            if (y[i] == low[col] || y[i] == high[col] || col == 0 || col == width - 1) {
+                candidates.add(i);
+            }
+        }
+        return candidates;
+    }
+}
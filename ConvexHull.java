@@ -1,16 +1,12 @@
-import java.security.cert.LDAPCertStoreParameters;
-import java.util.HashSet;
-import java.util.concurrent.BrokenBarrierException;
-import java.util.concurrent.Callable;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CyclicBarrier;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ConvexHull {
     public int n = 0; // The number of points in the dataset
@@ -18,212 +14,671 @@ public class ConvexHull {
     public int[] y = new int[0]; // The y-coordinates of the points
     public int MAX_X = 0; // The index of the point with the maximum x-coordinate
     public int MAX_Y = 0; // The index of the point with the maximum y-coordinate
-    ExecutorService executor;
+    long[] xy; // The packed points if the dataset was given packed, else null
+    Extremes extremes; // The extreme points, found once for all the algorithms
+    boolean culling = false; // If true, points inside the extreme octagon are culled
+    int culled = 0; // The number of points culled by the last hull computation
+    boolean narrow = true; // If true, distances fit in a long, see calculateDistance
+    long extremesNanos = 0; // The time the extremes scan took, until findHullPar reports it
+
+    // The Vector API version of the innermost loops, null if it is not available
+    static final DistanceKernel VECTOR_KERNEL = DistanceKernel.loadVectorKernel();
 
     public ConvexHull(int n, int[] x, int[] y) {
         this.n = n;
         this.x = x;
         this.y = y;
 
-        // Find max x and y
-        for (int i = 0; i < n; i++) {
-            if (x[i] > x[MAX_X]) {
-                MAX_X = i;
-            }
-            if (y[i] > y[MAX_Y]) {
-                MAX_Y = i;
-            }
+        // Find min x, max x and max y
+        long start = System.nanoTime();
+        setExtremes(Extremes.scan(x, y, 0, n), start);
+    }
+
+    /*
+     * Creates the view of a dataset given as packed points, see PackedPoints. The
+     * coordinate arrays are unpacked from it, so all the algorithms can be used,
+     * and findHullInPlace starts from a copy of the packed points.
+     */
+    public ConvexHull(int n, long[] xy) {
+        this.n = n;
+        this.xy = xy;
+        this.x = new int[n];
+        this.y = new int[n];
+        PackedPoints.unpack(n, xy, x, y);
+
+        long start = System.nanoTime();
+        setExtremes(Extremes.scan(x, y, 0, n), start);
+    }
+
+    /*
+     * Creates the view of the dataset and finds its extreme points with a
+     * parallel scan using the threads of the engine.
+     */
+    public ConvexHull(int n, int[] x, int[] y, HullEngine engine) {
+        this.n = n;
+        this.x = x;
+        this.y = y;
+
+        long start = System.nanoTime();
+        setExtremes(Extremes.scanPar(engine, n, x, y), start);
+    }
+
+    private void setExtremes(Extremes extremes, long start) {
+        extremesNanos = System.nanoTime() - start;
+        this.extremes = extremes;
+        MAX_X = extremes.maxX;
+        MAX_Y = extremes.maxY;
+        if (n > 0) {
+            narrow = Orientation.fitsLong((long) x[extremes.maxX] - x[extremes.minX],
+                    (long) y[extremes.maxY] - y[extremes.minY]);
         }
     }
 
     /*
-     * Finds the convex hull of the dataset using a sequential algorithm.
+     * Turns the Akl-Toussaint pre-filter on or off. When on, the points strictly
+     * inside the octagon spanned by the 8 extreme points are thrown away while the
+     * points are split at the top level, so they never reach the recursion. The
+     * hull is the same either way.
      * 
-     * @return The convex hull of the dataset
+     * @param culling True to cull the interior points
      */
-    public IntList findHullSeq() {
+    public void setCulling(boolean culling) {
+        this.culling = culling;
+    }
 
-        IntList coHull = new IntList();
+    /*
+     * Returns the share of the points which was culled by the last hull
+     * computation, 0 if culling is off.
+     * 
+     * @return The culled share, between 0 and 1
+     */
+    public double culledShare() {
+        return n == 0 ? 0 : (double) culled / n;
+    }
 
-        // find the min x
-        int minX = 0;
-        int maxX = 0;
-        for (int i = 1; i < n; i++) {
-            if (x[i] < x[minX]) {
-                minX = i;
-            }
-            if (x[i] > x[maxX]) {
-                maxX = i;
-            }
+    /*
+     * Returns the octagon to cull points with, or null if nothing should be
+     * culled.
+     */
+    private Octagon cullingOctagon() {
+        return culling && n > 0 ? Octagon.of(extremes, n, x, y) : null;
+    }
+
+    /*
+     * Returns a copy of the points, packed, see PackedPoints. If culling is on, the
+     * points strictly inside the extreme octagon are left out.
+     * 
+     * @return The packed points, in no particular order
+     */
+    long[] packedPoints() {
+        Octagon octagon = cullingOctagon();
+        if (octagon == null) {
+            culled = 0;
+            return xy != null ? Arrays.copyOf(xy, n) : PackedPoints.pack(n, x, y);
         }
 
-        IntList allPoints = new IntList(n);
+        long[] points = new long[n];
+        int len = 0;
         for (int i = 0; i < n; i++) {
-            allPoints.add(i);
+            if (!octagon.inside(x[i], y[i])) {
+                points[len++] = PackedPoints.pack(x[i], y[i]);
+            }
         }
+        culled = n - len;
+        return Arrays.copyOf(points, len);
+    }
 
-        IntList sameDistances = new IntList();
+    /*
+     * Finds the convex hull of the dataset with the given algorithm. Every
+     * algorithm returns the same list as findHullSeq.
+     * 
+     * @param algorithm The algorithm, for example HullAlgorithm.AUTO
+     * 
+     * @return The convex hull of the dataset
+     */
+    public IntList findHull(HullAlgorithm algorithm) {
+        return algorithm.findHull(this);
+    }
 
-        int p3 = findLargestNegativeDistance(allPoints, sameDistances, minX, maxX);
-        if (p3 == -1) {
-            return coHull;
-        }
+    /*
+     * Finds the convex hull of the dataset using a sequential algorithm.
+     * 
+     * @return The convex hull of the dataset
+     */
+    public IntList findHullSeq() {
+
+        IntList coHull = new IntList();
 
-        IntList bottom = seqRec(maxX, minX, p3, allPoints);
+        int minX = extremes.minX;
+        int maxX = extremes.maxX;
 
-        p3 = findLargestNegativeDistance(allPoints, sameDistances, maxX, minX);
-        if (p3 == -1) {
+        // Split the points into the ones below and above the line between minX and
+        // maxX, finding the furthest point on each side in the same pass
+        Split split = split(minX, maxX, 0, n, cullingOctagon());
+        culled = split.culled;
+        if (split.farBelow == -1 || split.farAbove == -1) {
             return coHull;
         }
-        IntList top = seqRec(minX, maxX, p3, allPoints);
 
         coHull.add(maxX);
-        coHull.append(top);
+        seqRec(minX, maxX, split.farAbove, split.above, coHull, null);
         coHull.add(minX);
-        coHull.append(bottom);
+        seqRec(maxX, minX, split.farBelow, split.below, coHull, null);
 
         return coHull;
     }
 
+    /*
+     * Returns the convex hull of the dataset using the shared engine, which uses
+     * all available processors.
+     * 
+     * @return The convex hull of the dataset
+     */
     public IntList findHullPar() {
-        return findHullPar(Runtime.getRuntime().availableProcessors());
+        return findHullPar(HullEngine.shared());
     }
 
     /*
-     * Returns the convex hull of the dataset using a parallel algorithm.
+     * Returns the convex hull of the dataset using a temporary engine with the
+     * given number of threads, which starts and stops a pool on every call.
      * 
-     * @param numThreads The number of layers of recursion before switching to the
-     * sequential algorithm.
+     * @deprecated Use findHullPar(HullEngine) with an engine which is kept
+     * between calls, or findHullPar() for the shared one
+     * 
+     * @param numThreads The number of threads to use
      * 
      * @return The convex hull of the dataset
      */
-    public IntList findHullPar(int numRecursionLayers) {
+    @Deprecated
+    public IntList findHullPar(int numThreads) {
+        try (HullEngine engine = new HullEngine(numThreads)) {
+            return findHullPar(engine);
+        }
+    }
 
-        int recursionDepth = (int) Math.floor(numRecursionLayers / 2.0);
-        executor = Executors.newFixedThreadPool(numRecursionLayers);
-        IntList coHull = new IntList();
+    /*
+     * Returns the convex hull of the dataset using a parallel algorithm. The
+     * recursion runs as fork/join tasks in the pool of the engine, so idle
+     * threads steal subtrees instead of blocking while they wait for their
+     * children.
+     * 
+     * A subset is split in a task of its own only if it has at least the fork
+     * threshold of the engine points, see HullEngine.forkThreshold(), smaller
+     * ones run sequentially with seqRec. If both halves together are smaller, the
+     * whole recursion runs in the calling thread.
+     * 
+     * @param engine The engine whose threads are used
+     * 
+     * @return The convex hull of the dataset
+     */
+    public IntList findHullPar(HullEngine engine) {
+        return parallelHull(engine, null);
+    }
 
-        // find the min x
-        int minX = 0;
-        int maxX = 0;
-        for (int i = 1; i < n; i++) {
-            if (x[i] < x[minX]) {
-                minX = i;
-            }
-            if (x[i] > x[maxX]) {
-                maxX = i;
+    /*
+     * Starts finding the convex hull of the dataset with findHullPar in the pool
+     * of the engine, and returns at once. The future is completed with the hull,
+     * or with the exception a task of the recursion threw.
+     * 
+     * Cancelling the future, or completing it any other way before the hull is
+     * done, stops the computation: every task, and every chunk of the first split,
+     * checks before it splits its points, so the tasks still queued or running
+     * give up instead of finishing a hull nobody waits for. Every call has a flag
+     * of its own, which is passed down to the tasks, so stopping one computation
+     * leaves the others of the same ConvexHull running.
+     * 
+     * @param engine The engine whose threads are used
+     * 
+     * @return The future convex hull of the dataset
+     */
+    public CompletableFuture<IntList> computeAsync(HullEngine engine) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CompletableFuture<IntList> future = new CompletableFuture<>();
+        future.whenComplete((hull, e) -> {
+            if (e != null) {
+                cancelled.set(true);
             }
+        });
+        try {
+            engine.pool().execute(() -> {
+                try {
+                    future.complete(parallelHull(engine, cancelled));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) { // The engine is closed
+            future.completeExceptionally(e);
         }
+        return future;
+    }
 
-        IntList allPoints = new IntList(n);
-        for (int i = 0; i < n; i++) {
-            allPoints.add(i);
+    /*
+     * Starts finding the convex hull of the dataset like computeAsync(engine), but
+     * gives up if it is not done within a time budget. The future is then
+     * completed with a TimeoutException and the computation is stopped.
+     * 
+     * @param timeout The time the computation may take
+     * 
+     * @param unit The unit of timeout
+     * 
+     * @return The future convex hull of the dataset
+     */
+    public CompletableFuture<IntList> computeAsync(HullEngine engine, long timeout, TimeUnit unit) {
+        return computeAsync(engine).orTimeout(timeout, unit);
+    }
+
+    /*
+     * Finds an approximation of the convex hull in a single pass over the points,
+     * see ApproximateHull. Every point is at most epsilon away from the
+     * approximate hull, which is inside the exact one.
+     * 
+     * @param epsilon The largest distance from a point to the approximate hull
+     * allowed, at least 0
+     * 
+     * @return The corners of the approximate hull, the number of strips and the
+     * error achieved
+     */
+    public ApproximateHull findHullApprox(double epsilon) {
+        return ApproximateHull.find(this, epsilon, null);
+    }
+
+    /*
+     * Like findHullApprox(epsilon), but the pass over the points uses the threads
+     * of an engine.
+     * 
+     * @param engine The engine whose threads are used
+     */
+    public ApproximateHull findHullApprox(double epsilon, HullEngine engine) {
+        return ApproximateHull.find(this, epsilon, engine);
+    }
+
+    /*
+     * Throws a CancellationException if the computation has been cancelled.
+     * 
+     * @param cancelled The flag of the computation, see computeAsync, or null if
+     * it can't be cancelled
+     */
+    private static void checkCancelled(AtomicBoolean cancelled) {
+        if (cancelled != null && cancelled.get()) {
+            throw new CancellationException("The convex hull computation was cancelled");
         }
+    }
 
-        IntList sameDistances = new IntList();
-        int p3 = findLargestNegativeDistance(allPoints, sameDistances, minX, maxX);
-        if (p3 == -1) {
-            return coHull;
+    /*
+     * Stops a forked half of the recursion once the other half has failed, and
+     * waits until it is done, so no task of a failed computation runs on after
+     * it has thrown.
+     * 
+     * @param cancelled The flag of the computation, set so a running half stops
+     * early, or null if it can't be cancelled
+     */
+    private static void abandon(ForkJoinTask<?> task, AtomicBoolean cancelled) {
+        if (cancelled != null) {
+            cancelled.set(true);
         }
-        Future<IntList> bottom = parRec(maxX, minX, p3, allPoints, recursionDepth);
+        task.cancel(false);
+        task.quietlyJoin();
+    }
 
-        p3 = findLargestNegativeDistance(allPoints, sameDistances, maxX, minX);
-        if (p3 == -1) {
+    /*
+     * Finds the hull for findHullPar and computeAsync.
+     * 
+     * @param cancelled The flag which stops the computation when it is set, or
+     * null if it can't be cancelled
+     */
+    private IntList parallelHull(HullEngine engine, AtomicBoolean cancelled) {
+
+        ForkJoinPool pool = engine.pool();
+        HullMetrics metrics = engine.metrics();
+        IntList coHull = new IntList();
+
+        int minX = extremes.minX;
+        int maxX = extremes.maxX;
+
+        // The extremes were found by the constructor, and are reused by every
+        // call after the first one
+        metrics.phase(HullMetrics.Phase.EXTREMES, n, extremesNanos);
+        extremesNanos = 0;
+
+        // Split the points into the ones below and above the line between minX and
+        // maxX, so each half of the recursion starts from its own set
+        long start = metrics.now();
+        Split split = splitPar(engine, minX, maxX, cullingOctagon(), cancelled);
+        culled = split.culled;
+        metrics.phase(HullMetrics.Phase.PARTITION, n, metrics.now() - start);
+        if (split.farBelow == -1 || split.farAbove == -1) {
+            metrics.phase(HullMetrics.Phase.RECURSION, 0, 0);
+            metrics.phase(HullMetrics.Phase.ASSEMBLY, 0, 0);
             return coHull;
         }
+        checkCancelled(cancelled);
 
-        Future<IntList> top = parRec(minX, maxX, p3, allPoints, recursionDepth);
-
-        try {
+        // Small datasets never fork, and do not need the threshold to be measured
+        int points = split.below.size() + split.above.size();
+        int forkThreshold = points < HullEngine.MIN_FORK_THRESHOLD ? Integer.MAX_VALUE : engine.forkThreshold();
+        start = metrics.now();
+        if (points < forkThreshold) {
+            metrics.task(1, split.above.size(), true);
+            metrics.task(1, split.below.size(), true);
             coHull.add(maxX);
-            coHull.append(top.get());
+            seqRec(minX, maxX, split.farAbove, split.above, coHull, cancelled);
             coHull.add(minX);
-            coHull.append(bottom.get());
-        } catch (InterruptedException | ExecutionException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
+            seqRec(maxX, minX, split.farBelow, split.below, coHull, cancelled);
+            metrics.phase(HullMetrics.Phase.RECURSION, points, metrics.now() - start);
+            // seqRec added the points to the hull as it found them
+            metrics.phase(HullMetrics.Phase.ASSEMBLY, coHull.size(), 0);
+            return coHull;
         }
 
-        executor.shutdown();
+        ParRecTask bottom = new ParRecTask(maxX, minX, split.farBelow, split.below, forkThreshold, 1, metrics,
+                cancelled);
+        ParRecTask top = new ParRecTask(minX, maxX, split.farAbove, split.above, forkThreshold, 1, metrics,
+                cancelled);
+
+        // The bottom half is queued in the pool while the calling thread waits for
+        // the top half, both halves are then free to be split further
+        pool.execute(bottom);
+        SubHull topHull;
         try {
-            executor.awaitTermination(30, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+            topHull = pool.invoke(top);
+        } catch (RuntimeException | Error e) {
+            abandon(bottom, cancelled);
+            throw e;
         }
+        SubHull bottomHull = bottom.join();
+        metrics.phase(HullMetrics.Phase.RECURSION, points, metrics.now() - start);
+
+        // The top half, minX and the bottom half follow maxX
+        start = metrics.now();
+        SubHull rest = new SubHull(topHull, minX, bottomHull);
+        coHull = new IntList(rest.size + 1);
+        coHull.len = rest.size + 1;
+        coHull.data[0] = maxX;
+        pool.invoke(new WriteTask(rest, coHull.data, 1));
+        metrics.phase(HullMetrics.Phase.ASSEMBLY, coHull.size(), metrics.now() - start);
 
         return coHull;
     }
 
     /*
-     * Returns the convex hull of the dataset slice
+     * The points of the dataset split by the line between minX and maxX, together
+     * with the point furthest away from the line on each side.
+     */
+    static class Split {
+        IntList below = new IntList(); // Points with negative distance
+        IntList above = new IntList(); // Points with positive distance
+        int farBelow = -1, farAbove = -1;
+        long minDistance = 0, maxDistance = 0;
+        int culled = 0; // Points inside the octagon, in neither group
+    }
+
+    /*
+     * Splits the points with indices in [from, to) by the line between p1 and p2.
+     * Points on the line are in neither group.
      * 
-     * @param p1 The index of the first point in the dataset slice
+     * @param octagon If not null, the points strictly inside it are culled
+     */
+    private Split split(int p1, int p2, int from, int to, Octagon octagon) {
+        Split split = new Split();
+        for (int i = from; i < to; i++) {
+            if (octagon != null && octagon.inside(x[i], y[i])) {
+                split.culled++;
+                continue;
+            }
+            long distance = calculateDistance(p1, p2, i);
+            if (distance < 0) {
+                split.below.add(i);
+                if (isFarther(p1, p2, i, distance, split.farBelow, split.minDistance)) {
+                    split.minDistance = distance;
+                    split.farBelow = i;
+                }
+            } else if (distance > 0) {
+                split.above.add(i);
+                if (isFarther(p2, p1, i, -distance, split.farAbove, -split.maxDistance)) {
+                    split.maxDistance = distance;
+                    split.farAbove = i;
+                }
+            }
+        }
+        return split;
+    }
+
+    /*
+     * Splits all points of the dataset by the line between p1 and p2 in parallel.
+     * Every chunk is split into its own lists first, the lists are then copied
+     * into place at offsets given by the sizes of the chunks before them, so
+     * both groups keep the points in index order.
      * 
-     * @param p2 The index of the last point in the dataset slice
+     * @param engine The engine whose threads are used
      * 
-     * @param p3 The index of the point with the largest negative distance from the
-     * line between p1 and p2
+     * @param octagon If not null, the points strictly inside it are culled
      * 
-     * @param m The indices of the points in the dataset slice
+     * @param cancelled The flag of the computation, checked before every chunk,
+     * or null if it can't be cancelled
      * 
-     * @return The convex hull of the dataset slice
+     * @return The points below and above the line, and the furthest of each
      */
-    private IntList seqRec(int p1, int p2, int p3, IntList m) {
-        // Creates subgroups with points on the left and right side of the line
-        IntList leftGroup = findGroup(m, p1, p3);
-        IntList rightGroup = findGroup(m, p3, p2);
-        // Convex hull in the correct order
-        IntList coHull = new IntList();
+    private Split splitPar(HullEngine engine, int p1, int p2, Octagon octagon, AtomicBoolean cancelled) {
+        int numChunks = engine.numChunks(n);
+        Split[] parts = new Split[numChunks];
+        engine.forEachChunk(numChunks, c -> {
+            checkCancelled(cancelled);
+            parts[c] = split(p1, p2, HullEngine.chunkStart(c, numChunks, n), HullEngine.chunkStart(c + 1, numChunks, n),
+                    octagon);
+        });
+        if (numChunks == 1) {
+            return parts[0];
+        }
+
+        // Merge the furthest points in index order and find the offsets
+        Split split = new Split();
+        int[] belowOffsets = new int[numChunks];
+        int[] aboveOffsets = new int[numChunks];
+        int belowLen = 0, aboveLen = 0;
+        for (int c = 0; c < numChunks; c++) {
+            Split part = parts[c];
+            if (isFarther(p1, p2, part.farBelow, part.minDistance, split.farBelow, split.minDistance)) {
+                split.minDistance = part.minDistance;
+                split.farBelow = part.farBelow;
+            }
+            if (isFarther(p2, p1, part.farAbove, -part.maxDistance, split.farAbove, -split.maxDistance)) {
+                split.maxDistance = part.maxDistance;
+                split.farAbove = part.farAbove;
+            }
+            split.culled += part.culled;
+            belowOffsets[c] = belowLen;
+            aboveOffsets[c] = aboveLen;
+            belowLen += part.below.size();
+            aboveLen += part.above.size();
+        }
 
-        // Points to the left, found recursively
-        IntList leftCoHull = new IntList();
-        IntList rightCoHull = new IntList();
+        split.below = new IntList(belowLen);
+        split.above = new IntList(aboveLen);
+        split.below.len = belowLen;
+        split.above.len = aboveLen;
+        engine.forEachChunk(numChunks, c -> {
+            System.arraycopy(parts[c].below.data, 0, split.below.data, belowOffsets[c], parts[c].below.len);
+            System.arraycopy(parts[c].above.data, 0, split.above.data, aboveOffsets[c], parts[c].above.len);
+        });
+        return split;
+    }
+
+    /*
+     * Finds the convex hull of the dataset without allocating anything per level
+     * of recursion. The recursion works on slices [lo, hi) of a single index
+     * buffer, which is partitioned in place quicksort-style, and the hull is
+     * written straight into the output list in counterclockwise order.
+     * 
+     * The packed points are partitioned along with the indices, so the points of
+     * a slice lie next to each other and are read sequentially, instead of
+     * through two random accesses to x and y per point. Memory stays at n ints
+     * and n longs for the buffers plus the size of the hull.
+     * 
+     * @return The convex hull of the dataset
+     */
+    public IntList findHullInPlace() {
+        IntList coHull = new IntList();
 
-        // If this is the last recursive call, the points on the line between p3 and p1
-        // are appended here
-        IntList rightLine = new IntList();
-        IntList leftLine = new IntList();
-        // Lists below are always added, if a leaf node in recursion the respective
-        // lists above are appended
-        IntList leftOnLine = new IntList();
-        IntList rightOnLine = new IntList();
+        int minX = extremes.minX;
+        int maxX = extremes.maxX;
 
-        int p4 = findLargestNegativeDistance(leftGroup, leftLine, p3, p1);
+        int[] buf = new int[n];
+        for (int i = 0; i < n; i++) {
+            buf[i] = i;
+        }
+        long[] coords = xy != null ? Arrays.copyOf(xy, n) : PackedPoints.pack(n, x, y);
 
-        // if p4 == -1 there are no points outside
-        if (p4 != -1) {
-            leftCoHull = seqRec(p1, p3, p4, leftGroup);
+        // Move the points above the line between minX and maxX to the front of the
+        // buffer and the points below it to the back, the rest are not needed. The
+        // furthest point on each side is found in the same pass
+        Octagon octagon = cullingOctagon();
+        int above = 0, below = n;
+        int farAbove = -1, farBelow = -1;
+        long maxDistance = 0, minDistance = 0;
+        int i = 0;
+        culled = 0;
+        while (i < below) {
+            int p = buf[i];
+            long c = coords[i];
+            if (octagon != null && octagon.inside(PackedPoints.x(c), PackedPoints.y(c))) {
+                culled++;
+                i++;
+                continue;
+            }
+            long distance = calculateDistance(x, y, narrow, minX, maxX, c);
+            if (distance > 0) {
+                if (isFarther(maxX, minX, p, -distance, farAbove, -maxDistance)) {
+                    maxDistance = distance;
+                    farAbove = p;
+                }
+                swap(buf, coords, i++, above++);
+            } else if (distance < 0) {
+                if (isFarther(minX, maxX, p, distance, farBelow, minDistance)) {
+                    minDistance = distance;
+                    farBelow = p;
+                }
+                swap(buf, coords, i, --below);
+            } else {
+                i++;
+            }
+        }
 
-            leftLine = new IntList();
-        } else {
-            // Add points on the line to the left
-            leftLine.sortByDistanceFrom(p3, x, y);
-            leftOnLine.append(leftLine);
+        if (farAbove == -1 || farBelow == -1) {
+            return coHull;
         }
 
-        p4 = findLargestNegativeDistance(rightGroup, rightLine, p2, p3);
+        coHull.add(maxX);
+        inPlaceRec(x, y, narrow, minX, maxX, farAbove, buf, coords, 0, above, coHull);
+        coHull.add(minX);
+        inPlaceRec(x, y, narrow, maxX, minX, farBelow, buf, coords, below, n, coHull);
+
+        return coHull;
+    }
 
-        if (p4 != -1) {
-            rightCoHull = seqRec(p3, p2, p4, rightGroup);
+    /*
+     * The in-place version of seqRec. Partitions the slice into the points
+     * outside the line between p1 and p3, which end up in [lo, left), and the
+     * points outside the line between p3 and p2, which end up in [right, hi).
+     * The points in between are inside the hull and are left behind. The
+     * furthest point outside each line is found in the same pass.
+     * 
+     * It is static so HullBatch can run it on its own buffers.
+     * 
+     * @param narrow If true, distances fit in a long, see calculateDistance
+     * 
+     * @param p1 The index of the first point
+     * 
+     * @param p2 The index of the last point
+     * 
+     * @param p3 The index of the point with the largest negative distance from the
+     * line between p1 and p2
+     * 
+     * @param buf The index buffer
+     * 
+     * @param coords The packed points, in the same order as buf
+     * 
+     * @param lo The start of the slice
+     * 
+     * @param hi The end of the slice, exclusive
+     * 
+     * @param coHull The list the hull points are written to, in order
+     */
+    static void inPlaceRec(int[] x, int[] y, boolean narrow, int p1, int p2, int p3, int[] buf, long[] coords, int lo,
+            int hi, IntList coHull) {
+        int left = lo, right = hi;
+        int farLeft = -1, farRight = -1;
+        long leftDistance = 0, rightDistance = 0;
+        int i = lo;
+        while (i < right) {
+            int p = buf[i];
+            if (p == p1 || p == p2 || p == p3) {
+                i++;
+                continue;
+            }
+            long distance = calculateDistance(x, y, narrow, p1, p3, coords[i]);
+            if (distance >= 0) {
+                if (isFarther(x, y, narrow, p3, p1, p, -distance, farLeft, leftDistance)) {
+                    leftDistance = -distance;
+                    farLeft = p;
+                }
+                swap(buf, coords, i++, left++);
+                continue;
+            }
+            distance = calculateDistance(x, y, narrow, p3, p2, coords[i]);
+            if (distance >= 0) {
+                if (isFarther(x, y, narrow, p2, p3, p, -distance, farRight, rightDistance)) {
+                    rightDistance = -distance;
+                    farRight = p;
+                }
+                swap(buf, coords, i, --right);
+            } else {
+                i++;
+            }
+        }
 
-            rightLine = new IntList();
+        // Points to the right, if none are outside the line the slice only holds
+        // points on the line, which are added in order of closest to p2. The
+        // partitioning has shuffled the slice, so it is put back in order of index
+        // first, for points at the same place to come in the same order as in
+        // findHullSeq
+        if (farRight != -1) {
+            inPlaceRec(x, y, narrow, p3, p2, farRight, buf, coords, right, hi, coHull);
         } else {
-            // Add points on the line to the right
-            rightLine.sortByDistanceFrom(p2, x, y);
-            rightOnLine.append(rightLine);
+            Arrays.sort(buf, right, hi);
+            IntList.sortByDistanceFrom(buf, right, hi, p2, x, y);
+            for (int j = right; j < hi; j++) {
+                coHull.add(buf[j]);
+            }
         }
 
-        coHull.append(rightOnLine);
-        coHull.append(rightCoHull);
         coHull.add(p3);
-        coHull.append(leftCoHull);
-        coHull.append(leftOnLine);
 
-        return coHull;
+        // Points to the left, on the line they are added in order of closest to p3
+        if (farLeft != -1) {
+            inPlaceRec(x, y, narrow, p1, p3, farLeft, buf, coords, lo, left, coHull);
+        } else {
+            Arrays.sort(buf, lo, left);
+            IntList.sortByDistanceFrom(buf, lo, left, p3, x, y);
+            for (int j = lo; j < left; j++) {
+                coHull.add(buf[j]);
+            }
+        }
+    }
+
+    private static void swap(int[] buf, long[] coords, int i, int j) {
+        int temp = buf[i];
+        buf[i] = buf[j];
+        buf[j] = temp;
+        long c = coords[i];
+        coords[i] = coords[j];
+        coords[j] = c;
     }
 
     /*
-     * Returns the convex hull of the dataset slice using a parallel algorithm.
+     * Adds the convex hull of the dataset slice to a list. The hull of the right
+     * group is added first, then p3 and then the hull of the left group, so every
+     * point is added once, straight to its place in the list.
      * 
      * @param p1 The index of the first point in the dataset slice
      * 
@@ -234,18 +689,52 @@ public class ConvexHull {
      * 
      * @param m The indices of the points in the dataset slice
      * 
-     * @param depth The current depth of recursion
+     * @param coHull The list the convex hull of the dataset slice is added to
      * 
-     * @return The convex hull of the dataset slice as a Future object
+     * @param cancelled The flag which stops the recursion when it is set, or null
+     * if it can't be cancelled
+     */
+    private void seqRec(int p1, int p2, int p3, IntList m, IntList coHull, AtomicBoolean cancelled) {
+        checkCancelled(cancelled);
+
+        // Creates subgroups with points on the left and right side of the line,
+        // finding the point furthest out in each of them in the same pass
+        Groups groups = splitGroups(m, p1, p2, p3);
+
+        // Points to the right, found recursively. If none are outside the line the
+        // group only holds the points on it, which are added in order of closest
+        // to p2
+        if (groups.farRight != -1) {
+            seqRec(p3, p2, groups.farRight, groups.right, coHull, cancelled);
+        } else {
+            groups.right.sortByDistanceFrom(p2, x, y);
+            coHull.append(groups.right);
+        }
+
+        coHull.add(p3);
+
+        // Points to the left, on the line they are added in order of closest to p3
+        if (groups.farLeft != -1) {
+            seqRec(p1, p3, groups.farLeft, groups.left, coHull, cancelled);
+        } else {
+            groups.left.sortByDistanceFrom(p3, x, y);
+            coHull.append(groups.left);
+        }
+    }
+
+    /*
+     * Returns the convex hull of the dataset slice, in a list of its own.
      */
-    private Future<IntList> parRec(int p1, int p2, int p3, IntList m, int depth) {
-        ParRecWorker callable = new ParRecWorker(p1, p2, p3, m, depth);
-        Future<IntList> fCoHull = executor.submit(callable);
-        return fCoHull;
+    private IntList seqRec(int p1, int p2, int p3, IntList m, AtomicBoolean cancelled) {
+        IntList coHull = new IntList();
+        seqRec(p1, p2, p3, m, coHull, cancelled);
+        return coHull;
     }
 
     /*
-     * Returns the convex hull of the dataset slice.
+     * Returns the convex hull of the dataset slice using a parallel algorithm.
+     * The right sub-hull is forked while the left sub-hull is computed by the
+     * current thread, so a worker never sits idle waiting for its children.
      * 
      * @param p1 The index of the first point in the dataset slice
      * 
@@ -256,148 +745,271 @@ public class ConvexHull {
      * 
      * @param m The indices of the points in the dataset slice
      * 
-     * @param recursionDepth The current depth of recursion
+     * @param forkThreshold The fewest points a subset needs to get a task of its
+     * own, smaller ones run with seqRec
+     * 
+     * @param cancelled The flag which stops the tasks when it is set, or null if
+     * they can't be cancelled
      * 
-     * @return The convex hull of the dataset slice as a Future object
+     * @return The convex hull of the dataset slice, as a tree of the sub-hulls
+     * the tasks found, see SubHull
      */
-    class ParRecWorker implements Callable<IntList> {
+    class ParRecTask extends RecursiveTask<SubHull> {
+        private static final long serialVersionUID = 1L;
 
         private int p1, p2, p3;
         private IntList m;
-        private int recursionDepth;
+        private int forkThreshold;
+        private int level; // 1 for the two halves, one more for every split
+        private HullMetrics metrics;
+        private AtomicBoolean cancelled;
 
-        public ParRecWorker(int p1, int p2, int p3, IntList m, int recursionDepth) {
+        public ParRecTask(int p1, int p2, int p3, IntList m, int forkThreshold, int level, HullMetrics metrics,
+                AtomicBoolean cancelled) {
             this.p1 = p1;
             this.p2 = p2;
             this.p3 = p3;
             this.m = m;
-            this.recursionDepth = recursionDepth - 2;
+            this.forkThreshold = forkThreshold;
+            this.level = level;
+            this.metrics = metrics;
+            this.cancelled = cancelled;
         }
 
         @Override
-        public IntList call() {
-            IntList leftGroup = findGroup(m, p1, p3);
-            IntList rightGroup = findGroup(m, p3, p2);
-
-            IntList rightLine = new IntList();
-            IntList leftLine = new IntList();
-            IntList rightOnLine = new IntList();
-            IntList leftOnLine = new IntList();
+        protected SubHull compute() {
+            checkCancelled(cancelled);
+            metrics.task(level, m.size(), false);
+            Groups groups = splitGroups(m, p1, p2, p3);
 
-            IntList coHull = new IntList();
+            SubHull rightCoHull = null;
+            SubHull leftCoHull;
+            ParRecTask rightTask = null;
 
-            Future<IntList> leftCohull = CompletableFuture.completedFuture(new IntList());
-            Future<IntList> rightCohull = CompletableFuture.completedFuture(new IntList());
+            // Right points, forked so another worker can steal them
+            if (groups.farRight != -1) {
+                if (groups.right.size() < forkThreshold) {
+                    metrics.task(level + 1, groups.right.size(), true);
+                    rightCoHull = new SubHull(seqRec(p3, p2, groups.farRight, groups.right, cancelled));
+                } else {
+                    rightTask = new ParRecTask(p3, p2, groups.farRight, groups.right, forkThreshold, level + 1,
+                            metrics, cancelled);
+                    rightTask.fork();
+                }
+            } else { // Only points on the line to the right
 
-            // Add right points
-            int p4 = findLargestNegativeDistance(rightGroup, rightLine, p2, p3);
-            if (p4 != -1) {
+                // Sort the points with distance 0 according to their distance to p2
+                groups.right.sortByDistanceFrom(p2, x, y);
+                rightCoHull = new SubHull(groups.right);
+            }
 
-                if (recursionDepth == 0)
-                    coHull.append(seqRec(p3, p2, p4, rightGroup));
-                else
-                    rightCohull = parRec(p3, p2, p4, rightGroup, recursionDepth);
-            } else { // Add points on the line to the right
+            // Left points, computed by this thread
+            try {
+                if (groups.farLeft != -1) {
+                    if (groups.left.size() < forkThreshold) {
+                        metrics.task(level + 1, groups.left.size(), true);
+                        leftCoHull = new SubHull(seqRec(p1, p3, groups.farLeft, groups.left, cancelled));
+                    } else {
+                        leftCoHull = new ParRecTask(p1, p3, groups.farLeft, groups.left, forkThreshold, level + 1,
+                                metrics, cancelled).compute();
+                    }
+                } else { // Only points on the line to the left
 
-                // Sort the points with distance 0 according to their distance to p2
-                rightLine.sortByDistanceFrom(p2, x, y);
-                // Add the points to the convex hull
-                if (recursionDepth == 0)
-                    coHull.append(rightLine);
-                else
-                    rightOnLine.append(rightLine);
+                    // Sort the points with distance 0 according to their distance to p3
+                    groups.left.sortByDistanceFrom(p3, x, y);
+                    leftCoHull = new SubHull(groups.left);
+                }
+            } catch (RuntimeException | Error e) {
+                if (rightTask != null) {
+                    abandon(rightTask, cancelled);
+                }
+                throw e;
             }
 
-            if (recursionDepth == 0)
-                coHull.add(p3);
-
-            // Add left points
-            p4 = findLargestNegativeDistance(leftGroup, leftLine, p3, p1);
-            if (p4 != -1) {
-                if (recursionDepth == 0)
-                    coHull.append(seqRec(p1, p3, p4, leftGroup));
-                else
-                    leftCohull = parRec(p1, p3, p4, leftGroup, recursionDepth);
-            } else { // Add points on the line to the left
-
-                // Sort the points with distance 0 according to their distance to p3
-                leftLine.sortByDistanceFrom(p3, x, y);
-                // Add the points to the convex hull
-                if (recursionDepth == 0)
-                    coHull.append(leftLine);
-                else
-                    leftOnLine.append(leftLine);
+            // Wait for the forked half, helping with other tasks in the meantime
+            if (rightTask != null) {
+                long start = metrics.now();
+                rightCoHull = rightTask.join();
+                metrics.waited(level, metrics.now() - start);
             }
 
-            // If the recursive calls returns Future objects, wait for them to finish and
-            // add the results to coHull
-            if (recursionDepth != 0) {
-                try {
-                    coHull.append(rightOnLine);
-                    coHull.append(rightCohull.get());
-                    coHull.add(p3);
-                    coHull.append(leftCohull.get());
-                    coHull.append(leftOnLine);
-                } catch (InterruptedException | ExecutionException e) {
-                    System.out.println("Error in parRecWorker");
-                    e.printStackTrace();
+            // Only the sizes are added up here, the points are written out once the
+            // whole tree is done
+            return new SubHull(rightCoHull, p3, leftCoHull);
+        }
+
+    }
+
+    /*
+     * The convex hull of a dataset slice as the tasks of findHullPar found it,
+     * before it is written out. A leaf holds a sub-hull found by seqRec, or the
+     * points on a line, and an inner node stands for the hull of its right child,
+     * then p3, then the hull of its left child. The size of every subtree is known,
+     * so every subtree knows where in the result its points go, and they are
+     * copied once, in parallel, instead of once per level of the recursion.
+     */
+    static class SubHull {
+        final int size; // The number of points in the sub-hull
+        final IntList points; // The points of a leaf, null for an inner node
+        final SubHull right, left;
+        final int p3;
+
+        SubHull(IntList points) {
+            this.size = points.size();
+            this.points = points;
+            this.right = this.left = null;
+            this.p3 = -1;
+        }
+
+        SubHull(SubHull right, int p3, SubHull left) {
+            this.size = right.size + 1 + left.size;
+            this.points = null;
+            this.right = right;
+            this.left = left;
+            this.p3 = p3;
+        }
+    }
+
+    /*
+     * Writes a sub-hull into an array, starting at an offset. The right child of a
+     * large enough subtree is forked, the left one written by the current thread.
+     */
+    static class WriteTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // The fewest points a subtree needs to be written by a task of its own
+        static final int FORK_SIZE = 1 << 14;
+
+        private final SubHull subHull;
+        private final int[] out;
+        private final int offset;
+
+        WriteTask(SubHull subHull, int[] out, int offset) {
+            this.subHull = subHull;
+            this.out = out;
+            this.offset = offset;
+        }
+
+        @Override
+        protected void compute() {
+            SubHull s = subHull;
+            int at = offset;
+            while (s.points == null) {
+                out[at + s.right.size] = s.p3;
+                if (s.right.size >= FORK_SIZE && s.left.size >= FORK_SIZE) {
+                    WriteTask right = new WriteTask(s.right, out, at);
+                    right.fork();
+                    new WriteTask(s.left, out, at + s.right.size + 1).compute();
+                    right.join();
+                    return;
+                }
+                // The smaller child is written here, the loop goes on with the other
+                if (s.right.size < s.left.size) {
+                    write(s.right, out, at);
+                    at += s.right.size + 1;
+                    s = s.left;
+                } else {
+                    write(s.left, out, at + s.right.size + 1);
+                    s = s.right;
                 }
             }
+            System.arraycopy(s.points.data, 0, out, at, s.size);
+        }
 
-            return coHull;
+        /*
+         * Writes a sub-hull into an array in this thread.
+         */
+        private static void write(SubHull s, int[] out, int offset) {
+            if (s.points != null) {
+                System.arraycopy(s.points.data, 0, out, offset, s.size);
+                return;
+            }
+            write(s.right, out, offset);
+            out[offset + s.right.size] = s.p3;
+            write(s.left, out, offset + s.right.size + 1);
         }
+    }
 
+    /*
+     * The points of a dataset slice outside the lines from p1 to p3 and from p3 to
+     * p2, together with the point furthest away from each line. The distances are
+     * from the lines the way the recursion sees them, p3 to p1 and p2 to p3, so
+     * they are 0 or negative. If no point is strictly outside a line, its group
+     * only holds the points on the line.
+     */
+    static class Groups {
+        IntList left = new IntList(); // Points on or outside the line from p1 to p3
+        IntList right = new IntList(); // Points on or outside the line from p3 to p2
+        int farLeft = -1, farRight = -1;
+        long leftDistance = 0, rightDistance = 0;
     }
 
     /*
-     * Finds the largest negative distance from the line between p1 and p2 from
-     * points in a dataset slice. Adds points with distance 0 to the list
-     * pointsOnLine.
+     * Splits the points of a dataset slice into the ones outside the line
+     * between p1 and p3 and the ones outside the line between p3 and p2, and finds
+     * the point furthest out in each group in the same pass. Every point is only
+     * read once, where splitting and searching the groups separately read it
+     * about four times.
      * 
-     * @param points The indices of the points in the dataset slice
-     * 
-     * @param pointsOnLine List to store points with distance 0
+     * @param m The indices of the points in the dataset slice
      * 
-     * @param p1 The index of the first point
+     * @param p1 The index of the first point in the dataset slice
      * 
-     * @param p2 The index of the second point
+     * @param p2 The index of the last point in the dataset slice
      * 
-     * @return The index of the point with the largest negative distance from the
+     * @param p3 The index of the point with the largest negative distance from the
      * line between p1 and p2
+     * 
+     * @return The groups, in the same order as in m
      */
-    private int findLargestNegativeDistance(IntList points, IntList pointsOnLine, int p1, int p2) {
-        double max = 0;
-        int maxIndex = -1;
-        pointsOnLine.clear();
-        for (int i = 0; i < points.size(); i++) {
-            int p3 = points.get(i);
-            if (p3 == p1 || p3 == p2) {
+    Groups splitGroups(IntList m, int p1, int p2, int p3) {
+        if (narrow && VECTOR_KERNEL != null) {
+            Groups groups = new Groups();
+            VECTOR_KERNEL.splitGroups(m.data, m.len, x, y, p1, p2, p3, groups);
+            return groups;
+        }
+        return splitGroupsScalar(m, p1, p2, p3);
+    }
+
+    /*
+     * The scalar loop of splitGroups, used when the Vector API kernel is not
+     * available or the distances do not fit in a long.
+     */
+    Groups splitGroupsScalar(IntList m, int p1, int p2, int p3) {
+        Groups groups = new Groups();
+        for (int i = 0; i < m.size(); i++) {
+            int p = m.get(i);
+            if (p == p1 || p == p2 || p == p3) {
                 continue;
             }
-            double distance = calculateDistance(p1, p2, p3);
-
-            // System.out.println("Distance from (" + p1 + " - " + p2 + ") to line " + p3 +
-            // " is " + distance);
-            if (distance == 0) {
-                pointsOnLine.add(p3);
+            // A point inside the hull can not be outside both lines
+            long distance = calculateDistance(p1, p3, p);
+            if (distance >= 0) {
+                groups.left.add(p);
+                if (isFarther(p3, p1, p, -distance, groups.farLeft, groups.leftDistance)) {
+                    groups.leftDistance = -distance;
+                    groups.farLeft = p;
+                }
+                continue;
             }
-
-            if (distance < max) {
-                max = distance;
-                maxIndex = p3;
+            distance = calculateDistance(p3, p2, p);
+            if (distance >= 0) {
+                groups.right.add(p);
+                if (isFarther(p2, p3, p, -distance, groups.farRight, groups.rightDistance)) {
+                    groups.rightDistance = -distance;
+                    groups.farRight = p;
+                }
             }
         }
-
-        if (maxIndex == -1) {
-            return -1;
-        }
-
-        return maxIndex;
+        return groups;
     }
 
     /*
      * Calculates the distance from a point to a line. Is not the actual distance,
-     * but can be used to compare what is closer
+     * but can be used to compare what is closer. It is the cross product of
+     * p2 - p1 and p3 - p1, computed exactly in long arithmetic. If the dataset is
+     * too spread out for the cross products to fit in a long, only the sign is
+     * returned, and distances are compared exactly with isFarther.
      * 
      * @param p1 The index of the first point
      * 
@@ -408,37 +1020,73 @@ public class ConvexHull {
      * 
      * @return The calculated distance from p3 to the line between p1 and p2
      */
-    private double calculateDistance(int p1, int p2, int p3) {
-        double a = y[p1] - y[p2];
-        double b = x[p2] - x[p1];
-        double c = y[p2] * x[p1] - y[p1] * x[p2];
+    private long calculateDistance(int p1, int p2, int p3) {
+        return calculateDistance(x, y, narrow, p1, p2, p3);
+    }
 
-        return a * x[p3] + b * y[p3] + c;
+    /*
+     * Calculates the distance from a point to a line among the points x and y,
+     * like calculateDistance(p1, p2, p3), for the code which works on the
+     * coordinates without a ConvexHull, see HullBatch.
+     * 
+     * @param narrow If true, the cross product is returned, else only its sign
+     */
+    static long calculateDistance(int[] x, int[] y, boolean narrow, int p1, int p2, int p3) {
+        if (narrow) {
+            return Orientation.cross(x[p1], y[p1], x[p2], y[p2], x[p3], y[p3]);
+        }
+        return Orientation.orientation(x[p1], y[p1], x[p2], y[p2], x[p3], y[p3]);
+    }
 
+    /*
+     * Calculates the distance from a packed point to the line between p1 and p2,
+     * like calculateDistance(x, y, narrow, p1, p2, p3).
+     * 
+     * @param xy The packed point, see PackedPoints
+     */
+    static long calculateDistance(int[] x, int[] y, boolean narrow, int p1, int p2, long xy) {
+        int x3 = PackedPoints.x(xy), y3 = PackedPoints.y(xy);
+        if (narrow) {
+            return Orientation.cross(x[p1], y[p1], x[p2], y[p2], x3, y3);
+        }
+        return Orientation.orientation(x[p1], y[p1], x[p2], y[p2], x3, y3);
     }
 
     /*
-     * Finds the points in a dataset slice which are obove the line between p1 and
-     * p2
+     * Checks if the point p is further away on the negative side of the line
+     * between p1 and p2 than the best point found so far. Ties go to the point
+     * with the lowest index, which is the first one found when the points are
+     * scanned in order, so the in-place version picks the same point even though
+     * its partitioning shuffles them.
      * 
-     * @param points The indices of the points in the dataset slice
+     * @param distance The distance of p, from calculateDistance
      * 
-     * @param p1 The index of the first point
+     * @param best The index of the best point so far, -1 if there is none
      * 
-     * @param p2 The index of the second point
+     * @param bestDistance The distance of the best point, 0 if there is none
+     * 
+     * @return True if p should replace the best point
      */
-    private IntList findGroup(IntList points, int p1, int p2) {
-        IntList group = new IntList();
-        for (int i = 0; i < points.size(); i++) {
-            int p3 = points.get(i);
-            double distance = calculateDistance(p1, p2, p3);
-            if (p3 == p1 || p3 == p2) {
-                continue;
-            }
-            if (distance >= 0) {
-                group.add(p3);
-            }
+    private boolean isFarther(int p1, int p2, int p, long distance, int best, long bestDistance) {
+        return isFarther(x, y, narrow, p1, p2, p, distance, best, bestDistance);
+    }
+
+    /*
+     * Checks if p is further away than the best point so far among the points x
+     * and y, like isFarther(p1, p2, p, distance, best, bestDistance).
+     */
+    static boolean isFarther(int[] x, int[] y, boolean narrow, int p1, int p2, int p, long distance, int best,
+            long bestDistance) {
+        if (narrow) {
+            return distance < bestDistance || distance == bestDistance && distance < 0 && p < best;
+        }
+        if (distance >= 0) {
+            return false;
+        }
+        if (best == -1) {
+            return true;
         }
-        return group;
+        int compare = Orientation.compareDistance(x, y, p1, p2, p, best);
+        return compare < 0 || compare == 0 && p < best;
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+/*
+ * The innermost loop of quickhull, which splits the points by two lines and
+ * finds the point furthest from each of them. Distances are the exact long cross
+ * products of Orientation.cross(), so a kernel may only be used on datasets
+ * for which Orientation.fitsLong() is true.
+ * 
+ * The loop in ConvexHull.splitGroups is the scalar version.
+ * vector/VectorKernel.java is a version using the incubating Vector API, which
+ * handles a full vector of points per instruction. It has to be compiled and
+ * run with --add-modules jdk.incubator.vector, without the module ConvexHull
+ * falls back to the scalar loop.
+ */
+interface DistanceKernel {
+
+    /*
+     * Splits the points into the groups outside the line between p1 and p3 and
+     * the line between p3 and p2, and finds the point furthest out in each, like
+     * ConvexHull.splitGroups. p1, p2 and p3 are in neither group.
+     * 
+     * @param points The indices of the points, in points[0, len), in increasing
+     * order, so the first of several points equally far out is the one with the
+     * lowest index, the one splitGroups picks
+     * 
+     * @param groups The empty groups to fill in
+     */
+    void splitGroups(int[] points, int len, int[] x, int[] y, int p1, int p2, int p3, ConvexHull.Groups groups);
+
+    /*
+     * Loads the Vector API kernel if the jdk.incubator.vector module is present
+     * and the kernel was compiled. Setting the property hull.vector to false turns
+     * it off.
+     * 
+     * @return The kernel, or null if the scalar loop should be used
+     */
+    static DistanceKernel loadVectorKernel() {
+        if (!Boolean.parseBoolean(System.getProperty("hull.vector", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (DistanceKernel) Class.forName("VectorKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,462 @@
+/*
+ * A convex hull of points which are both added and removed, for example the
+ * points of a sliding window. The points are indices into a pair of coordinate
+ * arrays, like in ConvexHull, and the coordinates of a point must not change
+ * while it is in the hull.
+ * 
+ * The places of the points are the leaves of a balanced binary tree, in order
+ * of x and then y, and points at the same place share a leaf. Every inner node
+ * keeps the bridges of its points, the edges of the upper and the lower half of
+ * their hull which go from a leaf of its left subtree to one of its right
+ * subtree, as in the structure of Overmars and van Leeuwen. The hull of a node
+ * is then its left subtree's hull up to the bridge, and its right subtree's
+ * hull after it. A bridge is found by binary searches down both subtrees, so
+ * adding or removing a point, which finds the bridges of the nodes above it
+ * again, takes O(log^3 n) time. Only the nodes whose hull the point is a
+ * corner of change, and most points are inside the hull of all but the
+ * smallest subtrees. A subtree which gets out of balance is rebuilt, which
+ * costs O(log^3 n) amortized as well.
+ * 
+ * The halves are followed from the root down to their corners, so the hull is
+ * listed in O(h log(n / h)) time, independent of how many points there are.
+ * Only the corners are listed, not every point on the boundary like
+ * ConvexHull.findHullSeq does, as the points on an edge are not kept apart
+ * from the ones inside.
+ */
+public class DynamicHull {
+    // A subtree is rebuilt when one side has more than this share of its leaves
+    static final double BALANCE = 0.75;
+
+    private final int[] x, y;
+    private Node root;
+    private int size = 0; // The number of points
+
+    // The bounding box of every point added, to know if Orientation.cross() fits
+    private int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+    private int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+    private boolean narrow = true;
+
+    /*
+     * A leaf holds the points at one place, an inner node always has two
+     * children. The side parameter of the methods below is 1 for the upper half
+     * of the hull and -1 for the lower half.
+     */
+    private static class Node {
+        Node left, right, parent;
+        int size = 1; // The number of leaves in the subtree
+        long key; // The place of a leaf as a packed point, the largest place in the
+                  // left subtree of an inner node
+        int point; // A point of a leaf, the one listed as a corner
+        IntList others; // The other points of a leaf, null if there are none
+        Node upperLeft, upperRight, lowerLeft, lowerRight; // The bridges
+
+        Node(long key, int point) {
+            this.key = key;
+            this.point = point;
+        }
+
+        boolean isLeaf() {
+            return left == null;
+        }
+
+        Node bridgeLeft(int side) {
+            return side > 0 ? upperLeft : lowerLeft;
+        }
+
+        Node bridgeRight(int side) {
+            return side > 0 ? upperRight : lowerRight;
+        }
+    }
+
+    /*
+     * Creates an empty hull of points with the given coordinates.
+     */
+    public DynamicHull(int[] x, int[] y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /*
+     * Returns the number of points in the hull.
+     */
+    public int size() {
+        return size;
+    }
+
+    /*
+     * Adds a point, which must not be in the hull already.
+     * 
+     * @param p The index of the point
+     */
+    public void add(int p) {
+        minX = Math.min(minX, x[p]);
+        maxX = Math.max(maxX, x[p]);
+        minY = Math.min(minY, y[p]);
+        maxY = Math.max(maxY, y[p]);
+        narrow = Orientation.fitsLong((long) maxX - minX, (long) maxY - minY);
+        size++;
+
+        long key = PackedPoints.pack(x[p], y[p]);
+        if (root == null) {
+            root = new Node(key, p);
+            return;
+        }
+        Node node = find(key);
+        if (node.key == key) {
+            if (node.others == null) {
+                node.others = new IntList();
+            }
+            node.others.add(p);
+            return;
+        }
+
+        // The leaf is replaced by an inner node with the old and the new leaf. The
+        // old leaf is kept, since bridges may end at it
+        Node leaf = new Node(key, p);
+        Node inner = new Node(Math.min(key, node.key), -1);
+        replace(node, inner);
+        inner.left = key < node.key ? leaf : node;
+        inner.right = key < node.key ? node : leaf;
+        leaf.parent = inner;
+        node.parent = inner;
+        update(inner, leaf, Integer.MAX_VALUE);
+    }
+
+    /*
+     * Removes a point.
+     * 
+     * @param p The index of the point
+     * 
+     * @return False if the point was not in the hull
+     */
+    public boolean remove(int p) {
+        if (root == null) {
+            return false;
+        }
+        long key = PackedPoints.pack(x[p], y[p]);
+        Node leaf = find(key);
+        if (leaf.key != key || (leaf.point != p && (leaf.others == null || !removeOther(leaf, p)))) {
+            return false;
+        }
+        size--;
+
+        // Another point at the same place takes over the leaf
+        if (leaf.point != p) {
+            return true;
+        }
+        if (leaf.others != null) {
+            leaf.point = leaf.others.get(leaf.others.size() - 1);
+            removeOther(leaf, leaf.point);
+            return true;
+        }
+
+        // The sibling of the leaf takes the place of their parent. Only the hulls
+        // the leaf is a corner of change, and those are the ones of the nodes up to
+        // some level.
+        Node parent = leaf.parent;
+        if (parent == null) {
+            root = null;
+            return true;
+        }
+        int changed = 0;
+        for (Node n = parent.parent; n != null && isCorner(n, leaf); n = n.parent) {
+            changed++;
+        }
+        Node sibling = parent.left == leaf ? parent.right : parent.left;
+        replace(parent, sibling);
+        if (sibling.parent != null) {
+            update(sibling.parent, null, changed);
+        }
+        return true;
+    }
+
+    /*
+     * Returns the corners of the hull, counterclockwise starting at the one with
+     * the largest x-coordinate. If the right side of the hull is a vertical edge,
+     * it starts at its lower corner.
+     * 
+     * This is not the list ConvexHull.findHullSeq returns for the same points.
+     * Points on an edge are not corners and are left out, and of several points
+     * at a corner only one is listed, which need not be the one findHullSeq
+     * lists. findHullSeq starts at extremes.maxX, which may be the upper corner
+     * of a vertical edge. And findHullSeq is empty when there are corners on only
+     * one side of the line between the points with the smallest and the largest
+     * x-coordinate, where this still lists them. When findHullSeq is not empty,
+     * these are its points which are corners, one for each place, rotated to
+     * start here.
+     * 
+     * @return The corners, empty if the points are all on a line
+     */
+    public IntList corners() {
+        IntList coHull = new IntList();
+        if (root == null || root.isLeaf()) {
+            return coHull;
+        }
+
+        // Both halves go from the smallest place to the largest one. The hull is the
+        // lower half, and then the upper half back without its ends.
+        IntList lower = new IntList();
+        IntList upper = new IntList();
+        half(root, null, null, -1, lower);
+        half(root, null, null, 1, upper);
+        if (lower.size() + upper.size() - 2 < 3) {
+            return coHull;
+        }
+
+        // Start at the first corner with the largest x-coordinate, which is at the
+        // end of the lower half
+        int first = lower.size() - 1;
+        while (first > 0 && x[lower.get(first - 1)] == x[lower.get(first)]) {
+            first--;
+        }
+        for (int i = first; i < lower.size(); i++) {
+            coHull.add(lower.get(i));
+        }
+        for (int i = upper.size() - 2; i > 0; i--) {
+            coHull.add(upper.get(i));
+        }
+        for (int i = 0; i < first; i++) {
+            coHull.add(lower.get(i));
+        }
+        return coHull;
+    }
+
+    /*
+     * Appends the corners of one half of the hull of a subtree between two of
+     * them, in order of x, to a list.
+     * 
+     * @param from The first corner, null for the first one of the subtree
+     * 
+     * @param to The last corner, null for the last one of the subtree
+     */
+    private void half(Node node, Node from, Node to, int side, IntList corners) {
+        while (!node.isLeaf()) {
+            Node left = node.bridgeLeft(side), right = node.bridgeRight(side);
+            if (to != null && to.key <= left.key) {
+                node = node.left;
+            } else if (from != null && from.key >= right.key) {
+                node = node.right;
+            } else {
+                half(node.left, from, left, side, corners);
+                node = node.right;
+                from = right;
+            }
+        }
+        corners.add(node.point);
+    }
+
+    /*
+     * Returns the leaf of a place, or the leaf next to where it would be.
+     */
+    private Node find(long key) {
+        Node node = root;
+        while (!node.isLeaf()) {
+            node = key <= node.key ? node.left : node.right;
+        }
+        return node;
+    }
+
+    /*
+     * Removes a point from the other points of a leaf.
+     * 
+     * @return False if it is not one of them
+     */
+    private boolean removeOther(Node leaf, int p) {
+        IntList others = leaf.others;
+        for (int i = 0; i < others.size(); i++) {
+            if (others.get(i) == p) {
+                others.data[i] = others.data[others.len - 1];
+                others.len--;
+                if (others.size() == 0) {
+                    leaf.others = null;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Updates the sizes from a node up to the root, rebuilds the highest subtree
+     * on the way which is out of balance, and finds the bridges of the nodes whose
+     * hull may have changed. The hull of a node only depends on the places in its
+     * subtree, so above a node whose hull has not changed, no hull has.
+     * 
+     * @param added The leaf which was added, the bridges are found until it is not
+     * a corner, or null
+     * 
+     * @param levels The number of nodes from node up to find the bridges of at
+     * most
+     */
+    private void update(Node node, Node added, int levels) {
+        Node unbalanced = null;
+        int level = 0, unbalancedLevel = 0;
+        for (Node n = node; n != null; n = n.parent, level++) {
+            n.size = n.left.size + n.right.size;
+            if (Math.max(n.left.size, n.right.size) > BALANCE * n.size) {
+                unbalanced = n;
+                unbalancedLevel = level;
+            }
+        }
+        if (unbalanced != null) {
+            node = rebuild(unbalanced).parent;
+            levels -= unbalancedLevel + 1;
+        }
+        for (Node n = node; n != null && levels > 0; n = n.parent, levels--) {
+            findBridges(n);
+            if (added != null && !isCorner(n, added)) {
+                break;
+            }
+        }
+    }
+
+    /*
+     * Checks if a leaf is a corner of the hull of a subtree, by following the
+     * halves of the hull down to it.
+     */
+    private boolean isCorner(Node node, Node leaf) {
+        return isCorner(node, leaf, 1) || isCorner(node, leaf, -1);
+    }
+
+    private boolean isCorner(Node node, Node leaf, int side) {
+        while (!node.isLeaf()) {
+            if (leaf.key <= node.bridgeLeft(side).key) {
+                node = node.left;
+            } else if (leaf.key >= node.bridgeRight(side).key) {
+                node = node.right;
+            } else {
+                return false;
+            }
+        }
+        return node == leaf;
+    }
+
+    /*
+     * Replaces a subtree with a balanced tree of the same leaves.
+     * 
+     * @return The root of the new subtree
+     */
+    private Node rebuild(Node node) {
+        Node[] leaves = new Node[node.size];
+        collect(node, leaves, 0);
+        Node rebuilt = build(leaves, 0, leaves.length);
+        replace(node, rebuilt);
+        return rebuilt;
+    }
+
+    private int collect(Node node, Node[] leaves, int len) {
+        if (node.isLeaf()) {
+            leaves[len] = node;
+            return len + 1;
+        }
+        return collect(node.right, leaves, collect(node.left, leaves, len));
+    }
+
+    private Node build(Node[] leaves, int from, int to) {
+        if (to - from == 1) {
+            return leaves[from];
+        }
+        int mid = (from + to) >>> 1;
+        Node node = new Node(leaves[mid - 1].key, -1);
+        node.left = build(leaves, from, mid);
+        node.right = build(leaves, mid, to);
+        node.left.parent = node;
+        node.right.parent = node;
+        node.size = to - from;
+        findBridges(node);
+        return node;
+    }
+
+    /*
+     * Puts a subtree in the place of a node.
+     */
+    private void replace(Node node, Node subtree) {
+        Node parent = node.parent;
+        subtree.parent = parent;
+        if (parent == null) {
+            root = subtree;
+        } else if (parent.left == node) {
+            parent.left = subtree;
+        } else {
+            parent.right = subtree;
+        }
+    }
+
+    private void findBridges(Node node) {
+        Node upper = bridge(node.left, node.right, 1);
+        node.upperLeft = upper;
+        node.upperRight = tangent(upper, node.right, 1);
+        Node lower = bridge(node.left, node.right, -1);
+        node.lowerLeft = lower;
+        node.lowerRight = tangent(lower, node.right, -1);
+    }
+
+    /*
+     * Finds the corner of the left subtree the bridge between two subtrees starts
+     * at. A corner of the left hull is before it if the next corner is strictly
+     * outside the line from it to its tangent point on the right hull, so the
+     * corner is found with a binary search down the left subtree. The bounds keep
+     * the search to the corners which are still on the hull.
+     * 
+     * @return The leaf the bridge starts at, the leftmost one if the bridge goes
+     * through several corners of the left hull
+     */
+    private Node bridge(Node left, Node right, int side) {
+        Node node = left;
+        Node from = null, to = null;
+        while (!node.isLeaf()) {
+            Node a = node.bridgeLeft(side), b = node.bridgeRight(side);
+            boolean before;
+            if (from != null && a.key < from.key) {
+                before = true;
+            } else if (to != null && b.key > to.key) {
+                before = false;
+            } else {
+                before = side * orientation(a, tangent(a, right, side), b) > 0;
+            }
+            if (before) {
+                from = b;
+                node = node.right;
+            } else {
+                to = a;
+                node = node.left;
+            }
+        }
+        return node;
+    }
+
+    /*
+     * Finds the corner of a subtree's hull a tangent from a leaf before all its
+     * leaves touches. Along the half of the hull the corners are first further
+     * and further out seen from the leaf, and then less and less, so it is a
+     * binary search down the subtree.
+     * 
+     * @return The corner, the rightmost one if the tangent goes through several
+     */
+    private Node tangent(Node p, Node node, int side) {
+        Node from = null, to = null;
+        while (!node.isLeaf()) {
+            Node a = node.bridgeLeft(side), b = node.bridgeRight(side);
+            boolean after;
+            if (from != null && a.key < from.key) {
+                after = true;
+            } else if (to != null && b.key > to.key) {
+                after = false;
+            } else {
+                after = side * orientation(p, a, b) >= 0;
+            }
+            if (after) {
+                from = b;
+                node = node.right;
+            } else {
+                to = a;
+                node = node.left;
+            }
+        }
+        return node;
+    }
+
+    private int orientation(Node a, Node b, Node c) {
+        return Orientation.orientation(a.key, b.key, c.key, narrow);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * The indices of the extreme points of a dataset, found in a single pass over
+ * the coordinates. Besides the min and max of x and y, the min and max of x + y
+ * and x - y are found, which are the corners of the octagon used for culling.
+ * Ties are broken by the lowest index, like the sequential scans in ConvexHull
+ * always did.
+ */
+class Extremes {
+    int minX = 0; // The index of the point with the minimum x-coordinate
+    int maxX = 0; // The index of the point with the maximum x-coordinate
+    int minY = 0; // The index of the point with the minimum y-coordinate
+    int maxY = 0; // The index of the point with the maximum y-coordinate
+    int minSum = 0, maxSum = 0; // The indices of the points with min and max x + y
+    int minDiff = 0, maxDiff = 0; // The indices of the points with min and max x - y
+
+    /*
+     * Finds the extreme points among the points with indices in [from, to).
+     * 
+     * @return The extremes of the slice, all equal to from if the slice is empty
+     */
+    static Extremes scan(int[] x, int[] y, int from, int to) {
+        Extremes e = new Extremes();
+        e.minX = e.maxX = e.minY = e.maxY = from;
+        e.minSum = e.maxSum = e.minDiff = e.maxDiff = from;
+        for (int i = from + 1; i < to; i++) {
+            if (x[i] < x[e.minX]) {
+                e.minX = i;
+            }
+            if (x[i] > x[e.maxX]) {
+                e.maxX = i;
+            }
+            if (y[i] < y[e.minY]) {
+                e.minY = i;
+            }
+            if (y[i] > y[e.maxY]) {
+                e.maxY = i;
+            }
+            long sum = (long) x[i] + y[i];
+            long diff = (long) x[i] - y[i];
+            if (sum < (long) x[e.minSum] + y[e.minSum]) {
+                e.minSum = i;
+            }
+            if (sum > (long) x[e.maxSum] + y[e.maxSum]) {
+                e.maxSum = i;
+            }
+            if (diff < (long) x[e.minDiff] - y[e.minDiff]) {
+                e.minDiff = i;
+            }
+            if (diff > (long) x[e.maxDiff] - y[e.maxDiff]) {
+                e.maxDiff = i;
+            }
+        }
+        return e;
+    }
+
+    /*
+     * Finds the extreme points of the dataset as a parallel reduction, every chunk
+     * of the arrays is scanned by its own task and the results are merged in
+     * index order.
+     * 
+     * @param engine The engine whose threads are used
+     * 
+     * @return The extremes of the dataset
+     */
+    static Extremes scanPar(HullEngine engine, int n, int[] x, int[] y) {
+        int numChunks = engine.numChunks(n);
+        Extremes[] parts = new Extremes[numChunks];
+        engine.forEachChunk(numChunks, c -> parts[c] = scan(x, y,
+                HullEngine.chunkStart(c, numChunks, n), HullEngine.chunkStart(c + 1, numChunks, n)));
+
+        Extremes e = parts[0];
+        for (int c = 1; c < numChunks; c++) {
+            e.merge(parts[c], x, y);
+        }
+        return e;
+    }
+
+    /*
+     * Merges the extremes of a slice with higher indices into these. A point from
+     * the other slice only wins if it is strictly more extreme.
+     */
+    void merge(Extremes other, int[] x, int[] y) {
+        if (x[other.minX] < x[minX]) {
+            minX = other.minX;
+        }
+        if (x[other.maxX] > x[maxX]) {
+            maxX = other.maxX;
+        }
+        if (y[other.minY] < y[minY]) {
+            minY = other.minY;
+        }
+        if (y[other.maxY] > y[maxY]) {
+            maxY = other.maxY;
+        }
+        if ((long) x[other.minSum] + y[other.minSum] < (long) x[minSum] + y[minSum]) {
+            minSum = other.minSum;
+        }
+        if ((long) x[other.maxSum] + y[other.maxSum] > (long) x[maxSum] + y[maxSum]) {
+            maxSum = other.maxSum;
+        }
+        if ((long) x[other.minDiff] - y[other.minDiff] < (long) x[minDiff] - y[minDiff]) {
+            minDiff = other.minDiff;
+        }
+        if ((long) x[other.maxDiff] - y[other.maxDiff] > (long) x[maxDiff] - y[maxDiff]) {
+            maxDiff = other.maxDiff;
+        }
+    }
+}
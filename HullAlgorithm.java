@@ -0,0 +1,135 @@
+import java.util.Arrays;
+
+/*
+ * An algorithm for finding the convex hull, see ConvexHull.findHull. Every
+ * algorithm returns the same list as ConvexHull.findHullSeq, all the points on
+ * the hull counterclockwise starting at the point with the largest x-coordinate,
+ * so they can be swapped freely.
+ * 
+ * Quickhull is fastest when few of the points are on the hull, which is the
+ * usual case. When most of them are, for example points on a circle, it
+ * recurses once per hull point and the monotone chain, which sorts once, is
+ * faster. AUTO looks at a sample of the points to choose between them. When the
+ * x-range is narrow compared to the number of points, as on the grid of
+ * NPunkter17, both lose to ColumnHull, which AUTO then uses instead.
+ */
+@FunctionalInterface
+interface HullAlgorithm {
+
+    /*
+     * Quickhull in this thread, ConvexHull.findHullSeq.
+     */
+    HullAlgorithm QUICKHULL = ConvexHull::findHullSeq;
+
+    /*
+     * Andrew's monotone chain in this thread, see MonotoneChain.
+     */
+    HullAlgorithm MONOTONE_CHAIN = hull -> MonotoneChain.findHull(hull, null);
+
+    /*
+     * Chan's output-sensitive algorithm, see ChanHull.
+     */
+    HullAlgorithm CHAN = ChanHull::findHull;
+
+    /*
+     * The lowest and highest point of every column in this thread, see
+     * ColumnHull, or quickhull if the x-range is too wide for it.
+     */
+    HullAlgorithm COLUMNS = hull -> ColumnHull.fits(hull) ? ColumnHull.findHull(hull, null)
+            : QUICKHULL.findHull(hull);
+
+    /*
+     * Chooses between quickhull and the monotone chain in this thread, by the share
+     * of a sample of the points which is on the hull of the sample.
+     */
+    HullAlgorithm AUTO = hull -> choose(hull, QUICKHULL, MONOTONE_CHAIN, COLUMNS);
+
+    // The number of points AUTO looks at
+    int SAMPLE_SIZE = 1024;
+
+    // AUTO uses the monotone chain if at least this share of the sample is on the
+    // hull of the sample. The sample only shows the shape of the dataset, a
+    // sample of a dense circle is all on its hull even if a tenth of the whole
+    // circle is, so only datasets which look like they are all on the hull switch.
+    double MONOTONE_SHARE = 0.9;
+
+    /*
+     * Finds the convex hull of the dataset.
+     * 
+     * @return The convex hull of the dataset, in the same order as
+     * ConvexHull.findHullSeq
+     */
+    IntList findHull(ConvexHull hull);
+
+    /*
+     * Quickhull using the threads of an engine, ConvexHull.findHullPar.
+     */
+    static HullAlgorithm quickhull(HullEngine engine) {
+        return hull -> hull.findHullPar(engine);
+    }
+
+    /*
+     * The monotone chain using the threads of an engine to sort the points and
+     * find the points on the hull.
+     */
+    static HullAlgorithm monotoneChain(HullEngine engine) {
+        return hull -> MonotoneChain.findHull(hull, engine);
+    }
+
+    /*
+     * Like COLUMNS, but using the threads of an engine for the passes over the
+     * points.
+     */
+    static HullAlgorithm columns(HullEngine engine) {
+        HullAlgorithm quickhull = quickhull(engine);
+        return hull -> ColumnHull.fits(hull) ? ColumnHull.findHull(hull, engine) : quickhull.findHull(hull);
+    }
+
+    /*
+     * Splits the points into one contiguous chunk per task of an engine, finds the
+     * hull of every chunk on its own and merges them, see ChunkedHull.
+     */
+    static HullAlgorithm chunked(HullEngine engine) {
+        return hull -> ChunkedHull.findHull(hull, engine);
+    }
+
+    /*
+     * Like AUTO, but using the threads of an engine.
+     */
+    static HullAlgorithm auto(HullEngine engine) {
+        HullAlgorithm quickhull = quickhull(engine);
+        HullAlgorithm monotoneChain = monotoneChain(engine);
+        HullAlgorithm columns = columns(engine);
+        return hull -> choose(hull, quickhull, monotoneChain, columns);
+    }
+
+    /*
+     * Uses the columns if the x-range is narrow enough. Otherwise estimates the
+     * share of the points on the hull from the hull of a sample, and chooses the
+     * monotone chain if it is large.
+     */
+    private static IntList choose(ConvexHull hull, HullAlgorithm quickhull, HullAlgorithm monotoneChain,
+            HullAlgorithm columns) {
+        if (ColumnHull.fits(hull)) {
+            return columns.findHull(hull);
+        }
+        if (hull.n < 2 * SAMPLE_SIZE) {
+            return quickhull.findHull(hull);
+        }
+
+        // Evenly spread indices with a fixed pseudo-random offset each, so sorted
+        // and structured inputs are sampled fairly and the choice is repeatable
+        long[] sample = new long[SAMPLE_SIZE];
+        long step = hull.n / SAMPLE_SIZE;
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            int p = (int) (i * step + Math.floorMod(seed >>> 33, step));
+            sample[i] = PackedPoints.pack(hull.x[p], hull.y[p]);
+        }
+        Arrays.sort(sample);
+        int h = MonotoneChain.corners(sample, 0, SAMPLE_SIZE, new long[2 * SAMPLE_SIZE + 1], hull.narrow);
+
+        return h >= MONOTONE_SHARE * SAMPLE_SIZE ? monotoneChain.findHull(hull) : quickhull.findHull(hull);
+    }
+}
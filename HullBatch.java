@@ -0,0 +1,171 @@
+/*
+ * The convex hulls of many small point sets, computed together. The sets are
+ * given in one pair of coordinate arrays, set s being the points with indices
+ * in [offsets[s], offsets[s + 1]), and the hulls are returned the same way, so
+ * there is no ConvexHull or IntList per set.
+ * 
+ * The sets are split into a few chunks per thread of an engine, and every chunk
+ * finds the hulls of its sets one after the other with the quickhull of
+ * findHullSeq, reusing its arrays from set to set.
+ */
+public class HullBatch {
+    // The hulls of all the sets, set after set, as indices into the coordinate
+    // arrays. The hull of set s is in points[offsets[s], offsets[s + 1]).
+    public final int[] points;
+    public final int[] offsets;
+
+    private HullBatch(int[] points, int[] offsets) {
+        this.points = points;
+        this.offsets = offsets;
+    }
+
+    /*
+     * Returns the number of sets.
+     */
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /*
+     * Finds the convex hull of every set. The hull of a set is the same list as
+     * ConvexHull.findHullSeq returns for it, with the indices offset by the start
+     * of the set.
+     * 
+     * @param x The x-coordinates of the points of all the sets
+     * 
+     * @param y The y-coordinates of the points of all the sets
+     * 
+     * @param offsets The start of every set, and the end of the last one, so
+     * there are offsets.length - 1 sets
+     * 
+     * @param engine The engine whose threads are used
+     * 
+     * @return The hulls of the sets
+     * 
+     * @throws IllegalArgumentException If offsets is empty, decreases, or points
+     * outside the coordinate arrays
+     */
+    public static HullBatch findHulls(int[] x, int[] y, int[] offsets, HullEngine engine) {
+        if (offsets.length < 1) {
+            throw new IllegalArgumentException("offsets must hold at least the end of the sets");
+        }
+        int numSets = offsets.length - 1;
+        if (offsets[0] < 0 || offsets[numSets] > Math.min(x.length, y.length)) {
+            throw new IllegalArgumentException("the sets [" + offsets[0] + ", " + offsets[numSets]
+                    + ") are not inside the " + Math.min(x.length, y.length) + " points");
+        }
+        for (int s = 0; s < numSets; s++) {
+            if (offsets[s + 1] < offsets[s]) {
+                throw new IllegalArgumentException("set " + s + " ends at " + offsets[s + 1] + " before its start "
+                        + offsets[s]);
+            }
+        }
+        int numChunks = Math.max(1, Math.min(numSets, engine.numChunks(offsets[numSets] - offsets[0])));
+        int[] sizes = new int[numSets];
+        IntList[] hulls = new IntList[numChunks];
+        engine.forEachChunk(numChunks, c -> {
+            Scratch scratch = new Scratch(x, y);
+            IntList coHull = new IntList();
+            int to = HullEngine.chunkStart(c + 1, numChunks, numSets);
+            for (int s = HullEngine.chunkStart(c, numChunks, numSets); s < to; s++) {
+                int before = coHull.len;
+                scratch.appendHull(offsets[s], offsets[s + 1], coHull);
+                sizes[s] = coHull.len - before;
+            }
+            hulls[c] = coHull;
+        });
+
+        int[] hullOffsets = new int[numSets + 1];
+        for (int s = 0; s < numSets; s++) {
+            hullOffsets[s + 1] = hullOffsets[s] + sizes[s];
+        }
+        int[] points = new int[hullOffsets[numSets]];
+        int len = 0;
+        for (IntList coHull : hulls) {
+            System.arraycopy(coHull.data, 0, points, len, coHull.len);
+            len += coHull.len;
+        }
+        return new HullBatch(points, hullOffsets);
+    }
+
+    /*
+     * The arrays a chunk reuses for all its sets. They grow to fit the largest
+     * set.
+     * 
+     * A set is split the same way as in findHullSeq, and the recursion is the
+     * one of ConvexHull.findHullInPlace, which partitions slices of one index
+     * buffer in place and breaks ties by index, so the hull is the same list.
+     */
+    private static class Scratch {
+        private final int[] x, y;
+        private int[] buf = new int[0];
+        private long[] coords = new long[0];
+
+        Scratch(int[] x, int[] y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        /*
+         * Appends the hull of the points with indices in [from, to) to a list.
+         */
+        void appendHull(int from, int to, IntList coHull) {
+            int len = to - from;
+            if (len < 3) {
+                return;
+            }
+
+            // The points with the smallest and largest x, the lowest index on ties
+            int minX = from, maxX = from;
+            int minY = y[from], maxY = y[from];
+            for (int i = from + 1; i < to; i++) {
+                if (x[i] < x[minX]) {
+                    minX = i;
+                }
+                if (x[i] > x[maxX]) {
+                    maxX = i;
+                }
+                minY = Math.min(minY, y[i]);
+                maxY = Math.max(maxY, y[i]);
+            }
+            boolean narrow = Orientation.fitsLong((long) x[maxX] - x[minX], (long) maxY - minY);
+
+            if (buf.length < len) {
+                buf = new int[len];
+                coords = new long[len];
+            }
+
+            // The points above the line go to the front of buf, the ones below to
+            // the back
+            int above = 0, below = len;
+            int farBelow = -1, farAbove = -1;
+            long minDistance = 0, maxDistance = 0;
+            for (int i = from; i < to; i++) {
+                long distance = ConvexHull.calculateDistance(x, y, narrow, minX, maxX, i);
+                if (distance < 0) {
+                    if (ConvexHull.isFarther(x, y, narrow, minX, maxX, i, distance, farBelow, minDistance)) {
+                        minDistance = distance;
+                        farBelow = i;
+                    }
+                    buf[--below] = i;
+                    coords[below] = PackedPoints.pack(x[i], y[i]);
+                } else if (distance > 0) {
+                    if (ConvexHull.isFarther(x, y, narrow, maxX, minX, i, -distance, farAbove, -maxDistance)) {
+                        maxDistance = distance;
+                        farAbove = i;
+                    }
+                    buf[above] = i;
+                    coords[above++] = PackedPoints.pack(x[i], y[i]);
+                }
+            }
+            if (farBelow == -1 || farAbove == -1) {
+                return;
+            }
+
+            coHull.add(maxX);
+            ConvexHull.inPlaceRec(x, y, narrow, minX, maxX, farAbove, buf, coords, 0, above, coHull);
+            coHull.add(minX);
+            ConvexHull.inPlaceRec(x, y, narrow, maxX, minX, farBelow, buf, coords, below, len, coHull);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/*
+ * Turns the corners of a convex hull into the list ConvexHull.findHullSeq
+ * returns, so every algorithm gives the same answer: all the points on the hull,
+ * counterclockwise starting at the point with the largest x-coordinate, with
+ * points on an edge in order along it and points at the same place in order of
+ * index. Like findHullSeq, the hull is empty if all the points on one side of
+ * the line between the points with the smallest and the largest x-coordinate
+ * are on the line, and other points on that line are left out.
+ * 
+ * Every point is located with a binary search over the x-coordinates of the
+ * lower and the upper half of the hull, so this takes O(n log h) time.
+ */
+class HullBoundary {
+    private final ConvexHull hull;
+    private final long[] corners;
+    private final int h;
+
+    // The lower half of the hull from the smallest to the largest corner, and the
+    // upper half back again, as positions in corners
+    private int[] lower, upper;
+    private int[] lowerX, upperX;
+    private int lowerLen, upperLen;
+    // The number of corners in each half with strictly increasing or decreasing x
+    private int lowerMonotone, upperMonotone;
+    private int minX, maxX; // The smallest and largest x-coordinate
+
+    private HullBoundary(ConvexHull hull, long[] corners, int h) {
+        this.hull = hull;
+        this.corners = corners;
+        this.h = h;
+    }
+
+    /*
+     * Finds the points on the convex hull with the given corners.
+     * 
+     * @param corners The corners of the hull as packed points, counterclockwise.
+     * Points on an edge and repeated points are not corners
+     * 
+     * @param h The number of corners, in corners[0, h)
+     * 
+     * @param engine The engine to locate the points with, or null to do it in this
+     * thread
+     * 
+     * @return The convex hull, in the same order as findHullSeq
+     */
+    static IntList of(ConvexHull hull, long[] corners, int h, HullEngine engine) {
+        if (h < 3 || !onBothSides(hull, corners, h)) {
+            return new IntList();
+        }
+        return new HullBoundary(hull, corners, h).find(engine);
+    }
+
+    /*
+     * Like of(hull, corners, h, engine), but only some of the points are located,
+     * when all the other points are known not to be on the hull.
+     * 
+     * @param candidates The points which may be on the hull, in order of index
+     * 
+     * @return The convex hull, in the same order as findHullSeq
+     */
+    static IntList among(ConvexHull hull, long[] corners, int h, IntList candidates) {
+        if (h < 3 || !onBothSides(hull, corners, h)) {
+            return new IntList();
+        }
+        return new HullBoundary(hull, corners, h).findAmong(candidates);
+    }
+
+    /*
+     * Checks that there are corners strictly on both sides of the line between
+     * the points with the smallest and the largest x-coordinate.
+     */
+    private static boolean onBothSides(ConvexHull hull, long[] corners, int h) {
+        long a = PackedPoints.pack(hull.x[hull.extremes.minX], hull.y[hull.extremes.minX]);
+        long b = PackedPoints.pack(hull.x[hull.extremes.maxX], hull.y[hull.extremes.maxX]);
+        boolean above = false, below = false;
+        for (int i = 0; i < h; i++) {
+            int side = Orientation.orientation(a, b, corners[i], hull.narrow);
+            above |= side > 0;
+            below |= side < 0;
+        }
+        return above && below;
+    }
+
+    private IntList find(HullEngine engine) {
+        splitHalves();
+
+        // Find the edge of every point on the hull, an edge is numbered by its first
+        // corner. The chunks keep the points in order of index.
+        int n = hull.n;
+        Octagon octagon = Octagon.of(hull.extremes, hull.n, hull.x, hull.y);
+        int numChunks = engine == null ? 1 : engine.numChunks(n);
+        IntList[] points = new IntList[numChunks];
+        IntList[] edges = new IntList[numChunks];
+        IntConsumer locateChunk = c -> {
+            IntList chunkPoints = new IntList();
+            IntList chunkEdges = new IntList();
+            int to = HullEngine.chunkStart(c + 1, numChunks, n);
+            for (int p = HullEngine.chunkStart(c, numChunks, n); p < to; p++) {
+                if (octagon != null && octagon.inside(hull.x[p], hull.y[p])) {
+                    continue;
+                }
+                int edge = locate(hull.x[p], hull.y[p]);
+                if (edge != -1) {
+                    chunkPoints.add(p);
+                    chunkEdges.add(edge);
+                }
+            }
+            points[c] = chunkPoints;
+            edges[c] = chunkEdges;
+        };
+        if (engine == null) {
+            locateChunk.accept(0);
+        } else {
+            engine.forEachChunk(numChunks, locateChunk);
+        }
+        return boundary(points, edges);
+    }
+
+    private IntList findAmong(IntList candidates) {
+        splitHalves();
+
+        IntList points = new IntList();
+        IntList edges = new IntList();
+        for (int i = 0; i < candidates.len; i++) {
+            int p = candidates.data[i];
+            int edge = locate(hull.x[p], hull.y[p]);
+            if (edge != -1) {
+                points.add(p);
+                edges.add(edge);
+            }
+        }
+        return boundary(new IntList[] { points }, new IntList[] { edges });
+    }
+
+    /*
+     * Lists the points on the hull given the edge of every one of them.
+     * 
+     * @param points The points on the hull, by chunk, in order of index
+     * 
+     * @param edges The edge of every point, numbered by its first corner
+     */
+    private IntList boundary(IntList[] points, IntList[] edges) {
+        int numChunks = points.length;
+
+        // Bucket the points by edge, and sort each edge by the distance from its
+        // first corner. The sort keeps the order of index for points at the same
+        // place.
+        int[] start = new int[h + 1];
+        for (int c = 0; c < numChunks; c++) {
+            for (int i = 0; i < edges[c].len; i++) {
+                start[edges[c].data[i] + 1]++;
+            }
+        }
+        for (int e = 0; e < h; e++) {
+            start[e + 1] += start[e];
+        }
+        int[] boundary = new int[start[h]];
+        int[] next = Arrays.copyOf(start, h);
+        for (int c = 0; c < numChunks; c++) {
+            for (int i = 0; i < edges[c].len; i++) {
+                boundary[next[edges[c].data[i]]++] = points[c].data[i];
+            }
+        }
+        for (int e = 0; e < h; e++) {
+            IntList.sortByDistanceFrom(boundary, start[e], start[e + 1], PackedPoints.x(corners[e]),
+                    PackedPoints.y(corners[e]), hull.x, hull.y);
+        }
+
+        // Start at the point with the largest x-coordinate and leave out the other
+        // points on the line to the point with the smallest x-coordinate
+        int first = hull.extremes.maxX;
+        int last = hull.extremes.minX;
+        int offset = 0;
+        while (boundary[offset] != first) {
+            offset++;
+        }
+        IntList coHull = new IntList(boundary.length);
+        for (int i = 0; i < boundary.length; i++) {
+            int p = boundary[(offset + i) % boundary.length];
+            if (p == first || p == last || distance(first, last, p) != 0) {
+                coHull.add(p);
+            }
+        }
+        return coHull;
+    }
+
+    /*
+     * Splits the corners into the lower half, from the smallest corner to the
+     * largest one, and the upper half back again. The smallest and largest are in
+     * order of x and then y, so a vertical edge at the right is the last edge of
+     * the lower half and one at the left is the last edge of the upper half.
+     */
+    private void splitHalves() {
+        int smallest = 0, largest = 0;
+        for (int i = 1; i < h; i++) {
+            if (corners[i] < corners[smallest]) {
+                smallest = i;
+            }
+            if (corners[i] > corners[largest]) {
+                largest = i;
+            }
+        }
+        minX = PackedPoints.x(corners[smallest]);
+        maxX = PackedPoints.x(corners[largest]);
+
+        lowerLen = (largest - smallest + h) % h + 1;
+        upperLen = (smallest - largest + h) % h + 1;
+        lower = new int[lowerLen];
+        lowerX = new int[lowerLen];
+        upper = new int[upperLen];
+        upperX = new int[upperLen];
+        for (int i = 0; i < lowerLen; i++) {
+            lower[i] = (smallest + i) % h;
+            lowerX[i] = PackedPoints.x(corners[lower[i]]);
+        }
+        for (int i = 0; i < upperLen; i++) {
+            upper[i] = (largest + i) % h;
+            upperX[i] = PackedPoints.x(corners[upper[i]]);
+        }
+        lowerMonotone = lowerX[lowerLen - 2] == maxX ? lowerLen - 1 : lowerLen;
+        upperMonotone = upperX[upperLen - 2] == minX ? upperLen - 1 : upperLen;
+    }
+
+    /*
+     * Finds the edge a point is on. A corner is on the edge it starts.
+     * 
+     * @return The first corner of the edge, or -1 if the point is inside the hull
+     */
+    private int locate(int px, int py) {
+        if (px == minX) {
+            // The smallest corner, or the vertical edge down to it
+            int top = upper[upperLen - 2];
+            int bottom = upper[upperLen - 1];
+            int topY = upperMonotone < upperLen ? PackedPoints.y(corners[top]) : PackedPoints.y(corners[bottom]);
+            int bottomY = PackedPoints.y(corners[bottom]);
+            if (py == bottomY) {
+                return bottom;
+            }
+            return py > bottomY && py <= topY ? top : -1;
+        }
+        if (px == maxX) {
+            // The largest corner, or the vertical edge up to it
+            int bottom = lower[lowerLen - 2];
+            int top = lower[lowerLen - 1];
+            int bottomY = lowerMonotone < lowerLen ? PackedPoints.y(corners[bottom])
+                    : PackedPoints.y(corners[top]);
+            int topY = PackedPoints.y(corners[top]);
+            if (py == topY) {
+                return top;
+            }
+            return py >= bottomY && py < topY ? bottom : -1;
+        }
+
+        long p = PackedPoints.pack(px, py);
+
+        // The last corner of the lower half at or to the left of the point
+        int lo = 0, hi = lowerMonotone - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (lowerX[mid] <= px) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (Orientation.orientation(corners[lower[lo]], corners[lower[lo + 1]], p, hull.narrow) == 0) {
+            return lower[lo];
+        }
+
+        // The last corner of the upper half at or to the right of the point
+        lo = 0;
+        hi = upperMonotone - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (upperX[mid] >= px) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (Orientation.orientation(corners[upper[lo]], corners[upper[lo + 1]], p, hull.narrow) == 0) {
+            return upper[lo];
+        }
+        return -1;
+    }
+
+    /*
+     * Returns the sign of the distance from p to the line between p1 and p2.
+     */
+    private int distance(int p1, int p2, int p) {
+        return Orientation.orientation(hull.x[p1], hull.y[p1], hull.x[p2], hull.y[p2], hull.x[p], hull.y[p]);
+    }
+}
@@ -0,0 +1,215 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Remembers the hulls of the datasets an engine has found, so asking again for
+ * the hull of the same points, an unchanged tile for example, costs a pass
+ * over the coordinates instead of a hull computation. A dataset is known by a
+ * 64-bit fingerprint of its coordinates and its number of points, see
+ * fingerprint(), and two datasets with the same key are taken to be the same.
+ * 
+ * The cache holds at most a given number of hulls, and evicts the least
+ * recently used one to make room. It is split into segments by key, each with
+ * its own lock and its own share of the capacity, so lookups of different
+ * datasets seldom wait for each other and never wait for a hull to be found.
+ * A small cache has fewer segments, so every segment has room for a few hulls.
+ * Two threads missing the same dataset at once both find its hull.
+ */
+public class HullCache {
+    static final int MAX_SEGMENTS = 16;
+    // The fewest hulls a segment holds, unless the whole cache holds fewer, so a
+    // few datasets landing in the same segment do not evict each other while the
+    // rest of the cache is empty
+    static final int SEGMENT_HULLS = 8;
+
+    private final HullEngine engine;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /*
+     * Creates an empty cache in front of an engine.
+     * 
+     * @param engine The engine which finds the hulls and the fingerprints
+     * 
+     * @param capacity The most hulls the cache holds, at least 1
+     */
+    public HullCache(HullEngine engine, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        }
+        this.engine = engine;
+        int numSegments = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, capacity / SEGMENT_HULLS)));
+        segments = new Segment[numSegments];
+        for (int s = 0; s < numSegments; s++) {
+            segments[s] = new Segment(capacity / numSegments + (s < capacity % numSegments ? 1 : 0));
+        }
+    }
+
+    /*
+     * Finds the convex hull of a dataset, or returns it from the cache if the
+     * same dataset has been seen before.
+     * 
+     * @param n The number of points in the dataset
+     * 
+     * @param x The x-coordinates of the points
+     * 
+     * @param y The y-coordinates of the points
+     * 
+     * @return The convex hull of the dataset, the same list as findHullSeq. It is
+     * a copy the caller may change
+     */
+    public IntList findHull(int n, int[] x, int[] y) {
+        Key key = new Key(fingerprint(engine, n, x, y), n);
+        Segment segment = segments[(int) (key.fingerprint ^ key.fingerprint >>> 32) & (segments.length - 1)];
+        int[] hull = segment.get(key);
+        if (hull != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            IntList coHull = engine.findHull(n, x, y);
+            hull = new int[coHull.len];
+            System.arraycopy(coHull.data, 0, hull, 0, coHull.len);
+            segment.put(key, hull);
+        }
+
+        IntList coHull = new IntList(hull.length);
+        System.arraycopy(hull, 0, coHull.data, 0, hull.length);
+        coHull.len = hull.length;
+        return coHull;
+    }
+
+    /*
+     * Returns the number of lookups which found the hull in the cache.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /*
+     * Returns the number of lookups which had to find the hull.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /*
+     * Returns the number of hulls evicted to make room for others.
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /*
+     * Returns the number of hulls in the cache.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /*
+     * Computes a 64-bit fingerprint of the first n points, which depends on every
+     * coordinate and on the order of the points. Every point is mixed with its
+     * index and the results are added up, so chunks of the points are hashed in
+     * parallel, and the fingerprint is the same however they are split.
+     * 
+     * @param engine The engine whose threads are used
+     * 
+     * @return The fingerprint
+     */
+    static long fingerprint(HullEngine engine, int n, int[] x, int[] y) {
+        int numChunks = engine.numChunks(n);
+        long[] parts = new long[numChunks];
+        engine.forEachChunk(numChunks, c -> parts[c] = fingerprint(x, y, HullEngine.chunkStart(c, numChunks, n),
+                HullEngine.chunkStart(c + 1, numChunks, n)));
+        long fingerprint = 0;
+        for (long part : parts) {
+            fingerprint += part;
+        }
+        return fingerprint;
+    }
+
+    /*
+     * Adds up the mixed points with indices in [from, to).
+     */
+    private static long fingerprint(int[] x, int[] y, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += mix(PackedPoints.pack(x[i], y[i]) + (i + 1) * 0x9E3779B97F4A7C15L);
+        }
+        return sum;
+    }
+
+    /*
+     * The finalizer of SplitMix64, every bit of the result depends on every bit
+     * of z.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /*
+     * A dataset as the cache knows it.
+     */
+    private static class Key {
+        final long fingerprint;
+        final int n;
+
+        Key(long fingerprint, int n) {
+            this.fingerprint = fingerprint;
+            this.n = n;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).fingerprint == fingerprint && ((Key) o).n == n;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(fingerprint) * 31 + n;
+        }
+    }
+
+    /*
+     * A part of the cache with its own lock, the hulls in order of last use.
+     */
+    private class Segment {
+        private final int capacity;
+        private final LinkedHashMap<Key, int[]> hulls;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.hulls = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest) {
+                    if (size() > Segment.this.capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized int[] get(Key key) {
+            return hulls.get(key);
+        }
+
+        synchronized void put(Key key, int[] hull) {
+            hulls.put(key, hull);
+        }
+
+        synchronized int size() {
+            return hulls.size();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/*
+ * A long-lived engine for computing convex hulls in parallel. The engine owns
+ * a fork/join pool which is shared by every call, so the cost of creating and
+ * tearing down threads is paid once instead of once per hull. The point arrays
+ * are passed in per call, a ConvexHull is only a cheap view of one dataset.
+ * 
+ * Close the engine when it is no longer needed to stop its threads.
+ */
+public class HullEngine implements AutoCloseable {
+    static final int MIN_CHUNK = 1 << 15; // Fewest points worth a task of their own
+    private static HullEngine shared; // Engine used by ConvexHull.findHullPar()
+
+    // A task of the recursion should do this many times the work it costs to fork
+    // and join it, and the calibrated threshold is kept within these bounds
+    static final int TASK_COST_FACTOR = 100;
+    static final int MIN_FORK_THRESHOLD = 1 << 10, MAX_FORK_THRESHOLD = 1 << 20;
+    private static int calibratedForkThreshold; // 0 until calibrated
+
+    private final ForkJoinPool pool;
+    private final int numThreads;
+    private volatile HullMetrics metrics = HullMetrics.NONE;
+    private int forkThreshold; // 0 until first used
+
+    public HullEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public HullEngine(int numThreads) {
+        this.numThreads = numThreads;
+        this.pool = new ForkJoinPool(numThreads);
+    }
+
+    /*
+     * Returns a default engine using all available processors. It is created on
+     * first use and lives as long as the program, its threads are daemon threads
+     * so it does not have to be closed.
+     * 
+     * @return The shared engine
+     */
+    static synchronized HullEngine shared() {
+        if (shared == null) {
+            shared = new HullEngine();
+        }
+        return shared;
+    }
+
+    /*
+     * Finds the convex hull of a dataset using the threads of this engine.
+     * 
+     * @param n The number of points in the dataset
+     * 
+     * @param x The x-coordinates of the points
+     * 
+     * @param y The y-coordinates of the points
+     * 
+     * @return The convex hull of the dataset
+     */
+    public IntList findHull(int n, int[] x, int[] y) {
+        return new ConvexHull(n, x, y, this).findHullPar(this);
+    }
+
+    /*
+     * Returns the number of chunks to split a pass over n points into. There are a
+     * few chunks per thread so the pool can balance them, but never chunks
+     * smaller than MIN_CHUNK.
+     * 
+     * @param n The number of points in the pass
+     * 
+     * @return The number of chunks, at least 1
+     */
+    int numChunks(int n) {
+        return (int) Math.max(1, Math.min(4L * numThreads, n / MIN_CHUNK));
+    }
+
+    /*
+     * Returns the first index of a chunk when n points are split into numChunks
+     * contiguous chunks of nearly equal size. The end of the chunk is the start
+     * of chunk + 1.
+     */
+    static int chunkStart(int chunk, int numChunks, int n) {
+        return (int) ((long) chunk * n / numChunks);
+    }
+
+    /*
+     * Runs body once for every chunk in [0, numChunks) in the pool and returns
+     * when all of them are done. A single chunk runs in the calling thread.
+     * 
+     * @param numChunks The number of chunks
+     * 
+     * @param body The work for one chunk, given the chunk number
+     */
+    void forEachChunk(int numChunks, IntConsumer body) {
+        if (numChunks == 1) {
+            body.accept(0);
+        } else {
+            pool.invoke(new ChunkAction(0, numChunks, body));
+        }
+    }
+
+    /*
+     * Splits a range of chunks in half until a single chunk is left, which is then
+     * run by whichever thread picks it up.
+     */
+    static class ChunkAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final IntConsumer body;
+
+        ChunkAction(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkAction(from, mid, body), new ChunkAction(mid, to, body));
+        }
+    }
+
+    /*
+     * Sets the metrics the hulls computed by this engine report to.
+     * 
+     * @param metrics The metrics, HullMetrics.NONE to stop measuring
+     */
+    void setMetrics(HullMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    HullMetrics metrics() {
+        return metrics;
+    }
+
+    /*
+     * Returns the fewest points a subset of the recursion needs to be split in a
+     * task of its own, smaller subsets are split sequentially. The threshold is
+     * set by the property hull.forkThreshold, or else measured the first time an
+     * engine needs it, as TASK_COST_FACTOR times the cost of a task divided by
+     * the cost of splitting a point. An engine with a single thread never forks.
+     * 
+     * @return The fork threshold, in points
+     */
+    int forkThreshold() {
+        if (forkThreshold == 0) {
+            forkThreshold = numThreads == 1 ? Integer.MAX_VALUE : calibratedForkThreshold(pool);
+        }
+        return forkThreshold;
+    }
+
+    /*
+     * Sets the fork threshold of this engine, see forkThreshold().
+     * 
+     * @param forkThreshold The fewest points a subset needs to be forked
+     */
+    void setForkThreshold(int forkThreshold) {
+        this.forkThreshold = Math.max(1, forkThreshold);
+    }
+
+    private static synchronized int calibratedForkThreshold(ForkJoinPool pool) {
+        if (calibratedForkThreshold == 0) {
+            Integer property = Integer.getInteger("hull.forkThreshold");
+            calibratedForkThreshold = property != null ? Math.max(1, property) : calibrate(pool);
+        }
+        return calibratedForkThreshold;
+    }
+
+    /*
+     * Measures the cost of a point, by splitting random points the way every task
+     * of the recursion does, and the cost of a task, by forking and joining empty
+     * ones in the pool. The best of a few rounds is used, so the first rounds
+     * warm up the code.
+     */
+    private static int calibrate(ForkJoinPool pool) {
+        int n = 1 << 12;
+        int[] x = new int[n];
+        int[] y = new int[n];
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextInt(1 << 20);
+            y[i] = random.nextInt(1 << 20);
+        }
+        ConvexHull hull = new ConvexHull(n, x, y);
+        IntList points = new IntList(n);
+        for (int i = 0; i < n; i++) {
+            points.add(i);
+        }
+
+        int tasks = 1 << 8;
+        long pointNanos = Long.MAX_VALUE, taskNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 20; round++) {
+            long start = System.nanoTime();
+            hull.splitGroups(points, hull.extremes.minX, hull.extremes.maxX, hull.extremes.maxY);
+            pointNanos = Math.min(pointNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            pool.invoke(new ChunkAction(0, tasks, c -> {
+            }));
+            taskNanos = Math.min(taskNanos, System.nanoTime() - start);
+        }
+
+        // ChunkAction runs 2 * tasks - 1 tasks for tasks leaves
+        double threshold = TASK_COST_FACTOR * ((double) taskNanos / (2 * tasks)) / ((double) pointNanos / n);
+        return (int) Math.max(MIN_FORK_THRESHOLD, Math.min(MAX_FORK_THRESHOLD, threshold));
+    }
+
+    ForkJoinPool pool() {
+        return pool;
+    }
+
+    int numThreads() {
+        return numThreads;
+    }
+
+    /*
+     * Stops the threads of the engine. Hulls which are being computed are allowed
+     * to finish, new calls are rejected.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * Answers queries against a convex hull once it has been found: whether a
+ * point is inside it, which corner is extreme in a direction, and which
+ * corners the tangents from a point outside it touch. The hull is reduced to
+ * its corners when the index is built, and every query is a binary search
+ * over them, so it takes O(log h) time and allocates nothing.
+ * 
+ * An index is never changed after it is built, so any number of threads may
+ * query it at the same time.
+ * 
+ * The corners are kept counterclockwise starting with the one with the
+ * smallest x-coordinate, and the smallest y-coordinate among those, like in
+ * IncrementalHull. The lower half of the hull goes from it to the largest
+ * corner, and the upper half back again. Along each half the directions of the
+ * edges turn by less than half a circle, which is what the searches rely on.
+ */
+public class HullIndex {
+    private final long[] corners; // The corners as packed points, see PackedPoints
+    private final int[] index; // The index in the dataset of every corner
+    private final int h; // The number of corners
+    private final int largest; // The position of the largest corner
+    private final boolean narrow; // If true, cross() is exact for the corners
+    private final int minX, maxX, minY, maxY; // The bounding box of the corners
+
+    /*
+     * Builds the index of a hull.
+     * 
+     * @param hull The dataset
+     * 
+     * @param coHull The convex hull of the dataset, as returned by findHullSeq or
+     * any of the other algorithms
+     */
+    public HullIndex(ConvexHull hull, IntList coHull) {
+        narrow = hull.narrow;
+
+        // The points on the edges and repeated points are left out. Repeated
+        // points are next to each other in coHull, and the first point may be in
+        // the middle of an edge.
+        long[] points = new long[coHull.size()];
+        int[] indices = new int[coHull.size()];
+        int len = 0;
+        for (int i = 0; i < coHull.size(); i++) {
+            int p = coHull.get(i);
+            long xy = PackedPoints.pack(hull.x[p], hull.y[p]);
+            if (len > 0 && xy == points[len - 1]) {
+                continue;
+            }
+            while (len >= 2 && Orientation.orientation(points[len - 2], points[len - 1], xy, narrow) == 0) {
+                len--;
+            }
+            points[len] = xy;
+            indices[len++] = p;
+        }
+        int from = 0;
+        while (len - from >= 3) {
+            if (points[len - 1] == points[from]
+                    || Orientation.orientation(points[len - 2], points[len - 1], points[from], narrow) == 0) {
+                len--;
+            } else if (Orientation.orientation(points[len - 1], points[from], points[from + 1], narrow) == 0) {
+                from++;
+            } else {
+                break;
+            }
+        }
+        h = len - from >= 3 ? len - from : 0;
+
+        // Start at the smallest corner
+        int smallest = from;
+        for (int i = from; i < from + h; i++) {
+            if (points[i] < points[smallest]) {
+                smallest = i;
+            }
+        }
+        corners = new long[h];
+        index = new int[h];
+        int largestCorner = 0;
+        for (int i = 0; i < h; i++) {
+            int j = smallest + i < from + h ? smallest + i : smallest + i - h;
+            corners[i] = points[j];
+            index[i] = indices[j];
+            if (corners[i] > corners[largestCorner]) {
+                largestCorner = i;
+            }
+        }
+        largest = largestCorner;
+
+        int lowX = Integer.MAX_VALUE, highX = Integer.MIN_VALUE;
+        int lowY = Integer.MAX_VALUE, highY = Integer.MIN_VALUE;
+        for (long xy : corners) {
+            lowX = Math.min(lowX, PackedPoints.x(xy));
+            highX = Math.max(highX, PackedPoints.x(xy));
+            lowY = Math.min(lowY, PackedPoints.y(xy));
+            highY = Math.max(highY, PackedPoints.y(xy));
+        }
+        minX = lowX;
+        maxX = highX;
+        minY = lowY;
+        maxY = highY;
+    }
+
+    /*
+     * Returns the number of corners of the hull, 0 if it is empty.
+     */
+    public int size() {
+        return h;
+    }
+
+    /*
+     * Checks if a point is inside the hull or on its boundary.
+     * 
+     * @return False if the point is strictly outside the hull, and always false
+     * if the hull is empty
+     */
+    public boolean contains(int px, int py) {
+        if (px < minX || px > maxX || py < minY || py > maxY) {
+            return false;
+        }
+        return IncrementalHull.contains(corners, PackedPoints.pack(px, py), narrow);
+    }
+
+    /*
+     * Finds the corner furthest in a direction, the one with the largest dot
+     * product with it. If an edge is perpendicular to the direction, one of its
+     * two corners is returned.
+     * 
+     * @param dx The x-component of the direction
+     * 
+     * @param dy The y-component of the direction
+     * 
+     * @return The index in the dataset of the corner, -1 if the hull is empty
+     */
+    public int extreme(int dx, int dy) {
+        return h == 0 ? -1 : index[extremeCorner(dx, dy)];
+    }
+
+    /*
+     * Finds the corner the left tangent from a point outside the hull touches, as
+     * seen from the point. The whole hull is on or to the right of the line from
+     * the point through the corner. If the line goes along an edge, the corner
+     * closest to the point is returned.
+     * 
+     * @return The index in the dataset of the corner, -1 if the point is inside
+     * the hull or on its boundary, or the hull is empty
+     */
+    public int leftTangent(int px, int py) {
+        int corner = tangent(px, py, true);
+        return corner == -1 ? -1 : index[corner];
+    }
+
+    /*
+     * Finds the corner the right tangent from a point outside the hull touches,
+     * as seen from the point. The whole hull is on or to the left of the line
+     * from the point through the corner. If the line goes along an edge, the
+     * corner closest to the point is returned.
+     * 
+     * @return The index in the dataset of the corner, -1 if the point is inside
+     * the hull or on its boundary, or the hull is empty
+     */
+    public int rightTangent(int px, int py) {
+        int corner = tangent(px, py, false);
+        return corner == -1 ? -1 : index[corner];
+    }
+
+    /*
+     * Returns the position of the corner furthest in a direction. Along a half of
+     * the hull the edges first go along the direction and then against it, or the
+     * other way around, so the furthest corner of a half is one of its ends or the
+     * corner where the edges turn.
+     */
+    private int extremeCorner(long dx, long dy) {
+        int lower = extremeOnHalf(0, largest, dx, dy);
+        int upper = extremeOnHalf(largest, h, dx, dy);
+        return isFurther(upper, lower, dx, dy) ? upper : lower;
+    }
+
+    /*
+     * Returns the position of the corner furthest in a direction among the
+     * corners from position first to position last of a half, where position h is
+     * the first corner again.
+     */
+    private int extremeOnHalf(int first, int last, long dx, long dy) {
+        if (first == last) {
+            return first;
+        }
+        // The first edge which does not go the same way as the first one
+        boolean ascending = goesAlong(first, dx, dy);
+        int lo = first + 1, hi = last;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (goesAlong(mid, dx, dy) == ascending) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        int best = first;
+        if (isFurther(lo, best, dx, dy)) {
+            best = lo;
+        }
+        if (isFurther(last, best, dx, dy)) {
+            best = last;
+        }
+        return best == h ? 0 : best;
+    }
+
+    /*
+     * Checks if the edge starting at a position goes strictly along a direction.
+     */
+    private boolean goesAlong(int edge, long dx, long dy) {
+        long from = corner(edge), to = corner(edge + 1);
+        return signOfDot(dx, dy, (long) PackedPoints.x(to) - PackedPoints.x(from),
+                (long) PackedPoints.y(to) - PackedPoints.y(from)) > 0;
+    }
+
+    /*
+     * Checks if the corner at position a is strictly further in a direction than
+     * the one at position b.
+     */
+    private boolean isFurther(int a, int b, long dx, long dy) {
+        long pa = corner(a), pb = corner(b);
+        return signOfDot(dx, dy, (long) PackedPoints.x(pa) - PackedPoints.x(pb),
+                (long) PackedPoints.y(pa) - PackedPoints.y(pb)) > 0;
+    }
+
+    /*
+     * Returns the sign of ax * bx + ay * by for components of at most 2^62 in
+     * magnitude.
+     */
+    private static int signOfDot(long ax, long ay, long bx, long by) {
+        return Orientation.signOfCross(ax, -ay, by, bx);
+    }
+
+    /*
+     * Returns the packed corner at a position, where position h is the first
+     * corner again.
+     */
+    private long corner(int position) {
+        return corners[position == h ? 0 : position];
+    }
+
+    /*
+     * Finds the position of the corner a tangent from a point touches. The edges
+     * the point sees, the ones it is strictly to the right of, follow each other
+     * around the hull, and the tangents touch the first corner of the first one
+     * and the last corner of the last one. One seen edge is found with the same
+     * search as contains(), and one unseen edge at the corner furthest away from
+     * the seen one, then the ends of the seen edges are found with binary
+     * searches between the two.
+     * 
+     * @param left True for the left tangent, the first corner of the seen edges
+     */
+    private int tangent(int px, int py, boolean left) {
+        if (h == 0) {
+            return -1;
+        }
+        long p = PackedPoints.pack(px, py);
+        // The point is outside the hull, so the cross products are exact if they
+        // are for the box around both the corners and the point
+        boolean narrow = Orientation.fitsLong((long) Math.max(maxX, px) - Math.min(minX, px),
+                (long) Math.max(maxY, py) - Math.min(minY, py));
+
+        int seen;
+        if (Orientation.orientation(corners[0], corners[1], p, narrow) < 0) {
+            seen = 0;
+        } else if (Orientation.orientation(corners[0], corners[h - 1], p, narrow) > 0) {
+            seen = h - 1;
+        } else {
+            int lo = 1, hi = h - 2;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (Orientation.orientation(corners[0], corners[mid], p, narrow) >= 0) {
+                    lo = mid;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            if (!sees(lo, p, narrow)) {
+                return -1;
+            }
+            seen = lo;
+        }
+
+        // Of the two edges at the corner furthest against the outward normal of the
+        // seen edge, at least one is not seen
+        long from = corners[seen], to = corner(seen + 1);
+        int far = extremeCorner((long) PackedPoints.y(from) - PackedPoints.y(to),
+                (long) PackedPoints.x(to) - PackedPoints.x(from));
+        int unseen = sees(far, p, narrow) ? (far == 0 ? h - 1 : far - 1) : far;
+
+        // The first edge after start for which sees() is not the same as for start,
+        // start itself being the last one checked
+        int start = left ? unseen : seen;
+        int steps = left ? (seen - unseen + h) % h : (unseen - seen + h) % h;
+        int lo = 1, hi = steps;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int edge = start + mid < h ? start + mid : start + mid - h;
+            if (sees(edge, p, narrow) == left) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return start + lo < h ? start + lo : start + lo - h;
+    }
+
+    /*
+     * Checks if a point sees the edge starting at a position, that is, if it is
+     * strictly to the right of it.
+     */
+    private boolean sees(int edge, long p, boolean narrow) {
+        return Orientation.orientation(corners[edge], corner(edge + 1), p, narrow) < 0;
+    }
+}
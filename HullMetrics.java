@@ -0,0 +1,74 @@
+/*
+ * Receives measurements from ConvexHull.findHullPar: the time of every phase,
+ * the number of points every task of the recursion gets, and how long tasks
+ * wait for their forked halves. An engine reports to its metrics, see
+ * HullEngine.setMetrics.
+ * 
+ * The default is NONE, which does nothing and does not even read the clock, so
+ * leaving the calls in costs next to nothing. JfrHullMetrics turns the
+ * measurements into JFR events.
+ */
+interface HullMetrics {
+
+    /*
+     * The phases of findHullPar, in order. Every call reports every phase once, a
+     * phase it has nothing to do in with 0 points and 0 time.
+     */
+    enum Phase {
+        EXTREMES, // The scan for the extreme points in the constructor, 0 after the first call
+        PARTITION, // The split of all points by the line between minX and maxX
+        RECURSION, // The recursion on both halves, until both are joined
+        ASSEMBLY // Putting the halves together into the hull
+    }
+
+    /*
+     * Metrics which ignore everything.
+     */
+    HullMetrics NONE = new HullMetrics() {
+        @Override
+        public long now() {
+            return 0;
+        }
+    };
+
+    /*
+     * Returns the time to measure phases and waits from, System.nanoTime() unless
+     * nothing is measured.
+     */
+    default long now() {
+        return System.nanoTime();
+    }
+
+    /*
+     * Called when a phase is done.
+     * 
+     * @param points The number of points the phase worked on
+     * 
+     * @param nanos The time the phase took
+     */
+    default void phase(Phase phase, int points, long nanos) {
+    }
+
+    /*
+     * Called for every task of the recursion.
+     * 
+     * @param level The level of the recursion, 1 for the two halves
+     * 
+     * @param points The number of points of the task, outside its line
+     * 
+     * @param sequential True if the task is past the cutoff and runs the rest of
+     * its subtree with seqRec, false if it is a fork/join task
+     */
+    default void task(int level, int points, boolean sequential) {
+    }
+
+    /*
+     * Called when a task has waited for its forked half.
+     * 
+     * @param level The level of the waiting task
+     * 
+     * @param nanos The time from the start of the wait until the half was done
+     */
+    default void waited(int level, long nanos) {
+    }
+}
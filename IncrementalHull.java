@@ -0,0 +1,175 @@
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntToLongFunction;
+
+/*
+ * A convex hull of points which arrive in batches. Only the corners of the hull
+ * are kept, so memory grows with the size of the hull and not with the number
+ * of points seen. Every batch is first filtered against the current hull, which
+ * takes O(log h) per point and is done in parallel, and only the points outside
+ * it are merged in with the monotone chain.
+ * 
+ * Points on an edge of the hull are not corners and are not kept, unlike in the
+ * list ConvexHull returns. The points are not kept either, so there are no
+ * indices, the corners are returned as coordinates.
+ */
+public class IncrementalHull {
+    private final HullEngine engine;
+
+    // The corners as packed points, counterclockwise starting with the smallest,
+    // see PackedPoints and MonotoneChain.corners
+    private long[] corners = new long[0];
+    private long pointsSeen = 0;
+
+    // The bounding box of every point seen, to know if Orientation.cross() fits
+    private int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+    private int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+    private boolean narrow = true;
+
+    /*
+     * Creates an empty hull which filters the batches in this thread.
+     */
+    public IncrementalHull() {
+        this(null);
+    }
+
+    /*
+     * Creates an empty hull.
+     * 
+     * @param engine The engine to filter the batches with, or null to do it in this
+     * thread
+     */
+    public IncrementalHull(HullEngine engine) {
+        this.engine = engine;
+    }
+
+    /*
+     * Adds a batch of points to the hull.
+     * 
+     * @param xs The x-coordinates of the points, in xs[0, count)
+     * 
+     * @param ys The y-coordinates of the points, in ys[0, count)
+     * 
+     * @param count The number of points in the batch
+     */
+    public void addPoints(int[] xs, int[] ys, int count) {
+        add(count, i -> PackedPoints.pack(xs[i], ys[i]));
+    }
+
+    /*
+     * Adds a batch of packed points to the hull, see PackedPoints. The points are
+     * read where they are, so the buffer may be a mapped file, see PointFile.
+     * 
+     * @param points The points, from the position to the limit of the buffer,
+     * which are left unchanged
+     */
+    public void addPoints(LongBuffer points) {
+        int offset = points.position();
+        add(points.remaining(), i -> points.get(offset + i));
+    }
+
+    /*
+     * Adds the points 0 to count - 1 of a batch, given by their packed
+     * coordinates.
+     */
+    private void add(int count, IntToLongFunction point) {
+        if (count == 0) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            long p = point.applyAsLong(i);
+            minX = Math.min(minX, PackedPoints.x(p));
+            maxX = Math.max(maxX, PackedPoints.x(p));
+            minY = Math.min(minY, PackedPoints.y(p));
+            maxY = Math.max(maxY, PackedPoints.y(p));
+        }
+        narrow = Orientation.fitsLong((long) maxX - minX, (long) maxY - minY);
+        pointsSeen += count;
+
+        // Keep the points strictly outside the current hull, and only the corners of
+        // their hull in every chunk, so the merge is small even for the first batch
+        int numChunks = engine == null ? 1 : engine.numChunks(count);
+        long[][] outside = new long[numChunks][];
+        IntConsumer filterChunk = c -> {
+            int from = HullEngine.chunkStart(c, numChunks, count);
+            int to = HullEngine.chunkStart(c + 1, numChunks, count);
+            long[] points = new long[to - from];
+            int len = 0;
+            for (int i = from; i < to; i++) {
+                long p = point.applyAsLong(i);
+                if (!contains(corners, p, narrow)) {
+                    points[len++] = p;
+                }
+            }
+            outside[c] = ChunkedHull.corners(points, len, narrow);
+        };
+        if (engine == null) {
+            filterChunk.accept(0);
+        } else {
+            engine.forEachChunk(numChunks, filterChunk);
+        }
+
+        long[][] merged = Arrays.copyOf(outside, numChunks + 1);
+        merged[numChunks] = corners;
+        corners = ChunkedHull.merge(merged, narrow);
+    }
+
+    /*
+     * Checks if a point is inside the hull or on its boundary, with a binary search
+     * over the triangles from the first corner.
+     * 
+     * @param hull The corners as packed points, counterclockwise
+     * 
+     * @return False if the point is strictly outside the hull, and always false
+     * if the hull has no area
+     */
+    static boolean contains(long[] hull, long p, boolean narrow) {
+        int h = hull.length;
+        if (h < 3) {
+            return false;
+        }
+        long first = hull[0];
+        if (Orientation.orientation(first, hull[1], p, narrow) < 0
+                || Orientation.orientation(first, hull[h - 1], p, narrow) > 0) {
+            return false;
+        }
+
+        // The last corner i with p to the left of or on the line from the first
+        // corner to it, then p is in the triangle first, i, i + 1 if it is anywhere
+        int lo = 1, hi = h - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (Orientation.orientation(first, hull[mid], p, narrow) >= 0) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return Orientation.orientation(hull[lo], hull[lo + 1], p, narrow) >= 0;
+    }
+
+    /*
+     * Returns the number of corners of the hull.
+     */
+    public int size() {
+        return corners.length;
+    }
+
+    /*
+     * Returns the number of points added so far.
+     */
+    public long pointsSeen() {
+        return pointsSeen;
+    }
+
+    /*
+     * Returns the corners of the hull, counterclockwise starting with the one with
+     * the smallest x-coordinate, and the smallest y-coordinate among those.
+     * 
+     * @return The corners as packed points, see PackedPoints.x() and y()
+     */
+    public long[] corners() {
+        return corners.clone();
+    }
+}
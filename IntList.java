@@ -1,5 +1,5 @@
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
 
 class IntList {
@@ -75,58 +75,110 @@ class IntList {
         System.out.println("");
     }
 
+    // Slices at least this long are sorted with Arrays.parallelSort, which runs
+    // on the common pool, not on the pool of the HullEngine calling it
+    static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+    // The length of the runs sortByKeys sorts by insertion before merging
+    private static final int INSERTION_RUN = 32;
+
     // This function sorts the list by closest to relativePoint with
     // 'distanceBetweenTwo'
     void sortByDistanceFrom(int relativePoint, int[] x, int[] y) {
-        // Create a list of integer indices that correspond to the elements in the
-        // IntList
-
-        // Sort the indices based on the distances from the relative point
-        Comparator<Integer> comp = new Comparator<Integer>() {
-            @Override
-            public int compare(Integer i1, Integer i2) {
-                double distance1 = distanceBetweenTwo(i1, relativePoint, x, y);
-                double distance2 = distanceBetweenTwo(i2, relativePoint, x, y);
-                return Double.compare(distance1, distance2);
-            }
-        };
-        quicksort(0, len - 1, comp);
+        sortByDistanceFrom(data, 0, len, relativePoint, x, y);
+    }
 
+    // Sorts the slice a[from..to) the same way. Used on slices of the index
+    // buffer in ConvexHull.findHullInPlace()
+    static void sortByDistanceFrom(int[] a, int from, int to, int relativePoint, int[] x, int[] y) {
+        sortByDistanceFrom(a, from, to, x[relativePoint], y[relativePoint], x, y);
     }
 
-    private double distanceBetweenTwo(int p1, int p2, int[] x, int[] y) {
-        int x1 = x[p1];
-        int x2 = x[p2];
-        int y1 = y[p1];
-        int y2 = y[p2];
+    // Sorts the slice a[from..to) by closest to the point (relativeX, relativeY),
+    // which does not have to be one of the points. Points at the same distance
+    // keep their order
+    static void sortByDistanceFrom(int[] a, int from, int to, int relativeX, int relativeY, int[] x, int[] y) {
+        int len = to - from;
+        if (len < 2)
+            return;
+
+        // Compute the distance of every point once
+        long[] keys = new long[len];
+        long maxKey = 0;
+        for (int i = 0; i < len; i++) {
+            keys[i] = distanceBetweenTwo(x[a[from + i]], y[a[from + i]], relativeX, relativeY);
+            maxKey = Math.max(maxKey, keys[i]);
+        }
 
-        return Math.abs(x2 - x1) + Math.abs(y2 - y1);
-    }
+        // Pack the position of the point into the low bits of its key, so the
+        // slice can be sorted as plain longs without boxing. Long collinear runs
+        // are sorted in parallel.
+        int shift = 32 - Integer.numberOfLeadingZeros(len - 1);
+        if (maxKey >= 1L << (63 - shift)) {
+            sortByKeys(a, from, keys);
+            return;
+        }
+        for (int i = 0; i < len; i++) {
+            keys[i] = keys[i] << shift | i;
+        }
+        if (len >= PARALLEL_SORT_THRESHOLD)
+            Arrays.parallelSort(keys);
+        else
+            Arrays.sort(keys);
 
-    private void quicksort(int low, int high, Comparator<Integer> comp) {
-        if (low < high) {
-            int pivotIndex = partition(low, high, comp);
-            quicksort(low, pivotIndex - 1, comp);
-            quicksort(pivotIndex + 1, high, comp);
+        int[] points = Arrays.copyOfRange(a, from, to);
+        long mask = (1L << shift) - 1;
+        for (int i = 0; i < len; i++) {
+            a[from + i] = points[(int) (keys[i] & mask)];
         }
     }
 
-    private int partition(int low, int high, Comparator<Integer> comp) {
-        int pivot = data[high];
-        int i = low - 1;
-        for (int j = low; j < high; j++) {
-            if (comp.compare(data[j], pivot) <= 0) {
-                i++;
-                swap(i, j);
+    // Fallback for runs too long and too spread out for their keys and positions
+    // to fit in one long. Sorts the positions by the precomputed keys with a
+    // stable merge sort on plain ints, so equal keys keep their order
+    static void sortByKeys(int[] a, int from, long[] keys) {
+        int len = keys.length;
+        int[] order = new int[len];
+        int[] buf = new int[len];
+        for (int i = 0; i < len; i++)
+            order[i] = i;
+
+        // Insertion sort runs of INSERTION_RUN positions, then merge them
+        for (int lo = 0; lo < len; lo += INSERTION_RUN) {
+            int hi = Math.min(lo + INSERTION_RUN, len);
+            for (int i = lo + 1; i < hi; i++) {
+                int p = order[i];
+                int j = i - 1;
+                while (j >= lo && keys[order[j]] > keys[p]) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = p;
+            }
+        }
+        for (int width = INSERTION_RUN; width < len; width *= 2) {
+            for (int lo = 0; lo < len; lo += 2 * width) {
+                int mid = Math.min(lo + width, len), hi = Math.min(lo + 2 * width, len);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi)
+                    buf[k++] = keys[order[j]] < keys[order[i]] ? order[j++] : order[i++];
+                while (i < mid)
+                    buf[k++] = order[i++];
+                while (j < hi)
+                    buf[k++] = order[j++];
             }
+            int[] t = order;
+            order = buf;
+            buf = t;
+        }
+
+        int[] points = Arrays.copyOfRange(a, from, from + len);
+        for (int i = 0; i < len; i++) {
+            a[from + i] = points[order[i]];
         }
-        swap(i + 1, high);
-        return i + 1;
     }
 
-    private void swap(int i, int j) {
-        int temp = data[i];
-        data[i] = data[j];
-        data[j] = temp;
+    private static long distanceBetweenTwo(long x1, long y1, long x2, long y2) {
+        return Math.abs(x2 - x1) + Math.abs(y2 - y1);
     }
 }
\ No newline at end of file
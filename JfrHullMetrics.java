@@ -0,0 +1,101 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/*
+ * Metrics which commit every measurement as a JFR event, so they show up in a
+ * flight recording next to the GC and thread events:
+ * 
+ * java -XX:StartFlightRecording=filename=hull.jfr Oblig4 ...
+ * jfr print --events hull.Phase,hull.Task,hull.Wait hull.jfr
+ * 
+ * When no recording has the events enabled, nothing is allocated and only the
+ * clock is read.
+ */
+class JfrHullMetrics implements HullMetrics {
+
+    @Name("hull.Phase")
+    @Label("Hull Phase")
+    @Category("Convex Hull")
+    @Description("A phase of ConvexHull.findHullPar")
+    static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Points")
+        int points;
+
+        @Label("Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long time;
+    }
+
+    @Name("hull.Task")
+    @Label("Hull Task")
+    @Category("Convex Hull")
+    @Description("A task of the recursion and the number of points it gets")
+    static class TaskEvent extends Event {
+        @Label("Level")
+        int level;
+
+        @Label("Points")
+        int points;
+
+        @Label("Sequential")
+        @Description("True if the task runs its subtree with seqRec")
+        boolean sequential;
+    }
+
+    @Name("hull.Wait")
+    @Label("Hull Wait")
+    @Category("Convex Hull")
+    @Description("A task waiting for its forked half")
+    static class WaitEvent extends Event {
+        @Label("Level")
+        int level;
+
+        @Label("Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long time;
+    }
+
+    // Only used to check if the events are enabled
+    private static final PhaseEvent PHASE = new PhaseEvent();
+    private static final TaskEvent TASK = new TaskEvent();
+    private static final WaitEvent WAIT = new WaitEvent();
+
+    @Override
+    public void phase(Phase phase, int points, long nanos) {
+        if (PHASE.isEnabled()) {
+            PhaseEvent event = new PhaseEvent();
+            event.phase = phase.name();
+            event.points = points;
+            event.time = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void task(int level, int points, boolean sequential) {
+        if (TASK.isEnabled()) {
+            TaskEvent event = new TaskEvent();
+            event.level = level;
+            event.points = points;
+            event.sequential = sequential;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void waited(int level, long nanos) {
+        if (WAIT.isEnabled()) {
+            WaitEvent event = new WaitEvent();
+            event.level = level;
+            event.time = nanos;
+            event.commit();
+        }
+    }
+}
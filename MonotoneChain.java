@@ -0,0 +1,84 @@
+import java.util.Arrays;
+
+/*
+ * Andrew's monotone chain algorithm. The points are sorted by x and then y, and
+ * the lower and the upper half of the hull are built in one sweep each, by
+ * removing the last corner as long as it does not make a left turn. It takes
+ * O(n log n) time no matter how many points are on the hull, where quickhull
+ * slows down when most of the points are. The sort is the expensive part, and
+ * with an engine it is done in parallel.
+ */
+class MonotoneChain {
+
+    private MonotoneChain() {
+    }
+
+    /*
+     * Finds the convex hull of the dataset, in the same order as
+     * ConvexHull.findHullSeq.
+     * 
+     * @param engine The engine to sort and find the hull points with, or null to
+     * do it all in this thread
+     * 
+     * @return The convex hull of the dataset
+     */
+    static IntList findHull(ConvexHull hull, HullEngine engine) {
+        long[] points = hull.packedPoints();
+        if (engine == null) {
+            Arrays.sort(points);
+        } else {
+            engine.pool().submit(() -> Arrays.parallelSort(points)).join();
+        }
+
+        long[] corners = new long[2 * points.length + 1];
+        int h = corners(points, 0, points.length, corners, hull.narrow);
+        return HullBoundary.of(hull, corners, h, engine);
+    }
+
+    /*
+     * Finds the corners of the convex hull of the sorted packed points in
+     * points[from, to). Points on an edge and repeated points are not corners.
+     * 
+     * @param corners Where the corners are written, counterclockwise starting with
+     * the smallest point. It needs room for 2 * (to - from) + 1 points
+     * 
+     * @param narrow True if Orientation.fitsLong() is true for the points
+     * 
+     * @return The number of corners
+     */
+    static int corners(long[] points, int from, int to, long[] corners, boolean narrow) {
+        if (to - from == 0) {
+            return 0;
+        }
+
+        // The lower half, from left to right
+        int k = 0;
+        for (int i = from; i < to; i++) {
+            long p = points[i];
+            if (i > from && p == points[i - 1]) {
+                continue;
+            }
+            while (k >= 2 && Orientation.orientation(corners[k - 2], corners[k - 1], p, narrow) <= 0) {
+                k--;
+            }
+            corners[k++] = p;
+        }
+        if (k == 1) {
+            return 1;
+        }
+
+        // The upper half, from right to left, ending with the first corner again
+        int lower = k + 1;
+        for (int i = to - 2; i >= from; i--) {
+            long p = points[i];
+            if (p == points[i + 1]) {
+                continue;
+            }
+            while (k >= lower && Orientation.orientation(corners[k - 2], corners[k - 1], p, narrow) <= 0) {
+                k--;
+            }
+            corners[k++] = p;
+        }
+        return k - 1;
+    }
+}
@@ -1,4 +1,6 @@
+import java.util.Arrays;
 import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Class NPunkter17 for aa finne n tilfeldige, ulike punkter i x,y-planet
@@ -10,10 +12,16 @@ public class NPunkter17 {
     Random r;
     int n;
     byte[] bitArr;
-    static int maxXY, xShift = 3;
+    int maxXY, xShift = 3;
     int scaleFactor = 3; // scaleFactor * scaleFactor * n= antall mulige punkter i planet (her: 3*n)
     final int[] bitMask = { 1, 2, 4, 8, 16, 32, 64, 128 };
     int xCentre = 0, yCentre = 0, maxVal;
+    int generated = 0; // points handed out so far
+    long seed;
+
+    // Points per random stream in fyllArrayerPar, fixed so the streams and
+    // therefore the points do not depend on the number of threads
+    static final int STREAM_POINTS = 1 << 16;
 
     NPunkter17(int n, int seed) {
         this.n = n;
@@ -23,6 +31,7 @@ public class NPunkter17 {
         xShift = xShift - 3; // 8 bits per byte
         bitArr = new byte[(maxXY << xShift | (maxXY >> 3)) + 1];
         r = new Random(seed);
+        this.seed = seed;
         // added to get more 'roundish' set of points
         for (int i = 1; i <= 20; i++) {
             xCentre += r.nextInt(maxXY);
@@ -41,11 +50,28 @@ public class NPunkter17 {
         return (bitArr[(x << xShift) | (y >> 3)] & bitMask[y & 7]) != 0;
     }
 
+    // Fills x and y with the n points, or with the ones left if some were
+    // handed out by fyllArrayer(x, y, count). Every point is only made once, so
+    // calling it again once all of them are handed out throws
+    // IllegalStateException; make a new NPunkter17 with the same seed to get
+    // the same points again
     public void fyllArrayer(int[] x, int[] y) {
+        if (n > 0 && generated == n)
+            throw new IllegalStateException("all " + n + " points have been generated");
+        fyllArrayer(x, y, n - generated);
+    } // end fyllArrayer
+
+    // Fills x[0..count) and y[0..count) with the next count points, so a large
+    // dataset can be generated in batches without holding all of it. The points
+    // are the same as those of a single call to fyllArrayer(x, y). Throws
+    // IllegalStateException if fewer than count of the n points are left
+    public void fyllArrayer(int[] x, int[] y, int count) {
+        if (count > n - generated)
+            throw new IllegalStateException(count + " points asked for, " + (n - generated) + " left of " + n);
         int next = 0;
         int xval, yval;
         // new 2017
-        while (next < n) {
+        while (next < count) {
             do {
                 xval = r.nextInt(maxXY) + 1;
                 yval = r.nextInt(maxXY) + 1;
@@ -56,8 +82,104 @@ public class NPunkter17 {
             setUsed(xval, yval);
             next++;
         } // next point
+        generated += count;
     } // end fyllArrayer
 
+    // Fills x[0..n) and y[0..n) with n distinct points like fyllArrayer(x, y),
+    // using the threads of engine. The points are not the same as those of
+    // fyllArrayer, but they are the same for a given n and seed with any number
+    // of threads.
+    //
+    // Every block of STREAM_POINTS points draws from its own SplittableRandom,
+    // split from one seeded with seed. The points are drawn in parallel, and a
+    // point at the same place as another is then drawn again, as many times as
+    // needed. The plane is split into stripes of x-values, whose bytes in bitArr
+    // do not overlap, and every stripe marks its points as used in order of
+    // index. So the point with the lowest index keeps a place, whichever thread
+    // gets there first, and the bitmap needs no atomic updates.
+    //
+    // Throws IllegalStateException if any points have been handed out already.
+    public void fyllArrayerPar(int[] x, int[] y, HullEngine engine) {
+        if (generated > 0)
+            throw new IllegalStateException(generated + " of the " + n + " points have been generated");
+        int numStreams = (n + STREAM_POINTS - 1) / STREAM_POINTS;
+        SplittableRandom[] streams = new SplittableRandom[numStreams];
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int s = 0; s < numStreams; s++)
+            streams[s] = root.split();
+
+        // Every point in the first round, then the ones at a place already used
+        int[] pending = null;
+        int numPending = n;
+        int numStripes = Math.max(1, Math.min(maxXY, 2 * engine.numThreads()));
+        while (numPending > 0) {
+            int[] points = pending;
+            int len = numPending;
+
+            // Draw the pending points of every stream in order of index
+            int[] streamStart = new int[numStreams + 1];
+            for (int i = 0; i < len; i++)
+                streamStart[(points == null ? i : points[i]) / STREAM_POINTS + 1]++;
+            for (int s = 0; s < numStreams; s++)
+                streamStart[s + 1] += streamStart[s];
+            engine.forEachChunk(numStreams, s -> {
+                SplittableRandom rnd = streams[s];
+                for (int k = streamStart[s]; k < streamStart[s + 1]; k++) {
+                    int i = points == null ? k : points[k];
+                    int xval, yval;
+                    do {
+                        xval = rnd.nextInt(maxXY) + 1;
+                        yval = rnd.nextInt(maxXY) + 1;
+                    } while (Math.abs(xval - xCentre) + Math.abs(yval - yCentre) > maxVal);
+                    x[i] = xval;
+                    y[i] = yval;
+                }
+            });
+
+            // Bucket the pending points by stripe, keeping them in order of index,
+            // so every stripe only reads its own points
+            int[] stripeStart = new int[numStripes + 1];
+            int[] stripes = new int[len];
+            for (int k = 0; k < len; k++)
+                stripeStart[stripe(x[points == null ? k : points[k]], numStripes) + 1]++;
+            for (int s = 0; s < numStripes; s++)
+                stripeStart[s + 1] += stripeStart[s];
+            int[] fill = Arrays.copyOf(stripeStart, numStripes);
+            for (int k = 0; k < len; k++) {
+                int i = points == null ? k : points[k];
+                stripes[fill[stripe(x[i], numStripes)]++] = i;
+            }
+
+            // Mark the places as used, stripe by stripe
+            IntList[] taken = new IntList[numStripes];
+            engine.forEachChunk(numStripes, s -> {
+                IntList again = new IntList();
+                for (int k = stripeStart[s]; k < stripeStart[s + 1]; k++) {
+                    int i = stripes[k];
+                    if (used(x[i], y[i]))
+                        again.add(i);
+                    else
+                        setUsed(x[i], y[i]);
+                }
+                taken[s] = again;
+            });
+
+            IntList again = new IntList();
+            for (IntList stripe : taken)
+                again.append(stripe);
+            Arrays.sort(again.data, 0, again.len);
+            pending = again.data;
+            numPending = again.len;
+        }
+        generated = n;
+    } // end fyllArrayerPar
+
+    // The stripe of fyllArrayerPar an x-value is in. Stripe s holds the x-values
+    // from 1 + s * maxXY / numStripes up to 1 + (s + 1) * maxXY / numStripes
+    private int stripe(int xval, int numStripes) {
+        return (int) (((long) xval * numStripes - 1) / maxXY);
+    }
+
     public IntList lagIntList() {
         IntList res = new IntList(n);
         for (int i = 0; i < n; i++)
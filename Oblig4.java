@@ -27,6 +27,9 @@ public class Oblig4 {
         boolean writeToFile = false;
         boolean drawGraph = false;
         boolean printResults = false;
+        boolean culling = false;
+        boolean parallelData = false;
+        boolean events = false;
         int flagNum = 0;
 
         // Parse arguments
@@ -44,6 +47,18 @@ public class Oblig4 {
                 printResults = true;
                 flagNum++;
             }
+            if (arguments.contains("-c")) {
+                culling = true;
+                flagNum++;
+            }
+            if (arguments.contains("-g")) {
+                parallelData = true;
+                flagNum++;
+            }
+            if (arguments.contains("-j")) {
+                events = true;
+                flagNum++;
+            }
 
             nValue = Integer.parseInt(args[0 + flagNum]);
 
@@ -59,10 +74,13 @@ public class Oblig4 {
 
         } catch (Exception e) {
             System.out.println(
-                    "Usage: 'java Oblig4 [-w] [-d] <n> [seed]', where <n> is the number of points to generate. Seed and flags are optional.\n * If -w is included, results will be written to file. \n * If -d is included, the graph will be drawn if n < 10 000.");
+                    "Usage: 'java Oblig4 [-w] [-d] [-c] [-g] [-j] <n> [seed]', where <n> is the number of points to generate. Seed and flags are optional.\n * If -w is included, results will be written to file. \n * If -d is included, the graph will be drawn if n < 10 000.\n * If -c is included, interior points are culled before the recursion.\n * If -g is included, the points are generated in parallel. They are different points than without it.\n * If -j is included, the parallel version reports its phases and tasks as JFR events.");
             return;
         }
 
+        if (events)
+            HullEngine.shared().setMetrics(new JfrHullMetrics());
+
         // Print n value(s)
         if (nValues.length > 1)
             System.out.println("Running for n values: " + Arrays.toString(nValues));
@@ -78,15 +96,18 @@ public class Oblig4 {
             x = new int[n];
             y = new int[n];
             p = new NPunkter17(n, SEED);
-            p.fyllArrayer(x, y);
+            if (parallelData)
+                p.fyllArrayerPar(x, y, HullEngine.shared());
+            else
+                p.fyllArrayer(x, y);
             System.out.println("  ...data done!\n");
 
             for (int i = 0; i < NUMBER_OF_RUNS; i++) {
-                runConvexHullSeq(n, SEED, writeToFile, drawGraph, printResults);
+                runConvexHullSeq(n, SEED, writeToFile, drawGraph, printResults, culling);
             }
 
             for (int i = 0; i < NUMBER_OF_RUNS; i++) {
-                runConvexHullPar(n, SEED, writeToFile, drawGraph, printResults);
+                runConvexHullPar(n, SEED, writeToFile, drawGraph, printResults, culling);
             }
 
         }
@@ -96,15 +117,19 @@ public class Oblig4 {
         printMeanSpeedups();
     }
 
-    public static void runConvexHullSeq(int n, int seed, boolean writeToFile, boolean drawGraph, boolean printResults) {
+    public static void runConvexHullSeq(int n, int seed, boolean writeToFile, boolean drawGraph, boolean printResults,
+            boolean culling) {
         // Generate points
         // Sequential version
         double start = System.currentTimeMillis();
         ConvexHull ch = new ConvexHull(n, x, y);
+        ch.setCulling(culling);
         IntList cohull = ch.findHullSeq();
         double end = System.currentTimeMillis();
 
         System.out.println(" * time: " + (end - start) + " ms (sequential version)");
+        if (culling)
+            System.out.printf("   culled %.2f %% of the points%n", 100 * ch.culledShare());
 
         Oblig4Precode precode = new Oblig4Precode(ch, cohull);
         if (n <= 10000 && drawGraph)
@@ -120,14 +145,18 @@ public class Oblig4 {
         }
     }
 
-    public static void runConvexHullPar(int n, int seed, boolean writeToFile, boolean drawGraph, boolean printResults) {
+    public static void runConvexHullPar(int n, int seed, boolean writeToFile, boolean drawGraph, boolean printResults,
+            boolean culling) {
         // Parallel version
         double start = System.currentTimeMillis();
         ConvexHull ch = new ConvexHull(n, x, y);
+        ch.setCulling(culling);
         IntList cohull = ch.findHullPar();
         double end = System.currentTimeMillis();
 
         System.out.println(" * time: " + (end - start) + " ms (parallel version)");
+        if (culling)
+            System.out.printf("   culled %.2f %% of the points%n", 100 * ch.culledShare());
 
         Oblig4Precode precode = new Oblig4Precode(ch, cohull);
         if (n <= 10000 && drawGraph)
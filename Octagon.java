@@ -0,0 +1,82 @@
+/*
+ * The polygon spanned by the 8 extreme points of a dataset, in the directions of
+ * x, x + y, y, y - x, -x, -(x + y), -y and x - y. It lies inside the convex hull,
+ * so every point strictly inside it can be thrown away before quickhull
+ * (Akl-Toussaint). On roundish datasets this is almost every point.
+ */
+class Octagon {
+    private final long[] vx; // The x-coordinates of the corners, counterclockwise
+    private final long[] vy; // The y-coordinates of the corners, counterclockwise
+    private final int corners; // The number of corners, repeated points removed
+
+    private Octagon(long[] vx, long[] vy, int corners) {
+        this.vx = vx;
+        this.vy = vy;
+        this.corners = corners;
+    }
+
+    /*
+     * Builds the octagon from the extreme points of a dataset. Neighbouring
+     * extreme points may be the same point, those are only kept once.
+     * 
+     * @param n The number of points in the dataset
+     * 
+     * @return The octagon, or null if it has no area and so can't cull anything,
+     * if the dataset is empty, or if it is too spread out for the tests to fit in
+     * a long
+     */
+    static Octagon of(Extremes e, int n, int[] x, int[] y) {
+        if (n == 0) {
+            return null;
+        }
+        if (!Orientation.fitsLong((long) x[e.maxX] - x[e.minX], (long) y[e.maxY] - y[e.minY])) {
+            return null;
+        }
+
+        // Counterclockwise, starting with the point furthest to the right
+        int[] order = { e.maxX, e.maxSum, e.maxY, e.minDiff, e.minX, e.minSum, e.minY, e.maxDiff };
+        long[] vx = new long[8];
+        long[] vy = new long[8];
+        int corners = 0;
+        for (int p : order) {
+            if (corners > 0 && vx[corners - 1] == x[p] && vy[corners - 1] == y[p]) {
+                continue;
+            }
+            vx[corners] = x[p];
+            vy[corners] = y[p];
+            corners++;
+        }
+        while (corners > 1 && vx[corners - 1] == vx[0] && vy[corners - 1] == vy[0]) {
+            corners--;
+        }
+
+        // The corners are in convex position, so the octagon has an area unless all
+        // of them are on a line
+        boolean area = false;
+        for (int i = 1; i + 1 < corners; i++) {
+            area |= (vx[i] - vx[0]) * (vy[i + 1] - vy[0]) - (vy[i] - vy[0]) * (vx[i + 1] - vx[0]) > 0;
+        }
+        if (corners < 3 || !area) {
+            return null;
+        }
+        return new Octagon(vx, vy, corners);
+    }
+
+    /*
+     * Checks if a point is strictly inside the octagon, which means that it is
+     * strictly to the left of every edge. Points on an edge may be on the hull
+     * and are kept.
+     * 
+     * @return True if the point can't be on the convex hull
+     */
+    boolean inside(int px, int py) {
+        for (int i = 0; i < corners; i++) {
+            int j = i + 1 == corners ? 0 : i + 1;
+            long cross = (vx[j] - vx[i]) * (py - vy[i]) - (vy[j] - vy[i]) * (px - vx[i]);
+            if (cross <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
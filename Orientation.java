@@ -0,0 +1,94 @@
+/*
+ * Exact orientation tests for points with int coordinates. The orientation of
+ * p3 relative to the line from p1 to p2 is the cross product of p2 - p1 and
+ * p3 - p1, which is twice the signed area of the triangle: positive if p3 is to
+ * the left of the line, negative if it is to the right and 0 on the line.
+ */
+class Orientation {
+
+    /*
+     * Checks if cross products of points within the given spans always fit in a
+     * long. The differences are then at most Integer.MAX_VALUE, so each product
+     * is below 2^62 and their difference below 2^63.
+     * 
+     * @param spanX The largest x-coordinate minus the smallest one
+     * 
+     * @param spanY The largest y-coordinate minus the smallest one
+     * 
+     * @return True if cross() is exact for the points
+     */
+    static boolean fitsLong(long spanX, long spanY) {
+        return spanX <= Integer.MAX_VALUE && spanY <= Integer.MAX_VALUE;
+    }
+
+    /*
+     * Returns the cross product of p2 - p1 and p3 - p1. It is exact when the
+     * three points lie within spans for which fitsLong() is true.
+     */
+    static long cross(int x1, int y1, int x2, int y2, int x3, int y3) {
+        return ((long) x2 - x1) * ((long) y3 - y1) - ((long) y2 - y1) * ((long) x3 - x1);
+    }
+
+    /*
+     * Returns the sign of the cross product of p2 - p1 and p3 - p1, exact for any
+     * int coordinates. The differences need 33 bits and the products 66, so the
+     * products are compared as 128-bit numbers.
+     * 
+     * @return -1, 0 or 1
+     */
+    static int orientation(int x1, int y1, int x2, int y2, int x3, int y3) {
+        return signOfCross((long) x2 - x1, (long) y2 - y1, (long) x3 - x1, (long) y3 - y1);
+    }
+
+    /*
+     * Returns the sign of the cross product of b - a and c - a for packed points,
+     * see PackedPoints.
+     * 
+     * @param narrow True if Orientation.fitsLong() is true for the points, then
+     * the faster cross() is used
+     * 
+     * @return -1, 0 or 1
+     */
+    static int orientation(long a, long b, long c, boolean narrow) {
+        int x1 = PackedPoints.x(a), y1 = PackedPoints.y(a);
+        int x2 = PackedPoints.x(b), y2 = PackedPoints.y(b);
+        int x3 = PackedPoints.x(c), y3 = PackedPoints.y(c);
+        if (narrow) {
+            return Long.signum(cross(x1, y1, x2, y2, x3, y3));
+        }
+        return orientation(x1, y1, x2, y2, x3, y3);
+    }
+
+    /*
+     * Compares how far the points a and b are from the line from p1 to p2, with the
+     * sign of the distance, exactly for any int coordinates. The difference of
+     * the two cross products is the cross product of p2 - p1 and a - b.
+     * 
+     * @return Negative if a has the smaller signed distance, 0 if they are equal
+     * and positive if b has the smaller one
+     */
+    static int compareDistance(int[] x, int[] y, int p1, int p2, int a, int b) {
+        return signOfCross((long) x[p2] - x[p1], (long) y[p2] - y[p1], (long) x[a] - x[b], (long) y[a] - y[b]);
+    }
+
+    /*
+     * Returns the sign of ax * by - ay * bx for components of at most 2^62 in
+     * magnitude.
+     */
+    static int signOfCross(long ax, long ay, long bx, long by) {
+        return compareProducts(ax, by, ay, bx);
+    }
+
+    /*
+     * Compares a * b with c * d using their full 128-bit products: the high words
+     * are compared as signed numbers and the low words as unsigned ones.
+     */
+    private static int compareProducts(long a, long b, long c, long d) {
+        long high1 = Math.multiplyHigh(a, b);
+        long high2 = Math.multiplyHigh(c, d);
+        if (high1 != high2) {
+            return high1 < high2 ? -1 : 1;
+        }
+        return Integer.signum(Long.compareUnsigned(a * b, c * d));
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Points stored with both coordinates in one long, x in the high 32 bits and y
+ * in the low 32 bits. A point is then read with a single memory access, and
+ * when an algorithm moves the packed points along with their indices, the
+ * points it works on lie next to each other in memory instead of being
+ * scattered over two arrays.
+ * 
+ * The sign bit of y is flipped, so packed points compare like their (x, y)
+ * pairs, and sorting a long[] of them sorts the points by x and then by y.
+ */
+class PackedPoints {
+
+    static long pack(int x, int y) {
+        return ((long) x << 32) | ((y ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    static int x(long xy) {
+        return (int) (xy >> 32);
+    }
+
+    static int y(long xy) {
+        return (int) xy ^ Integer.MIN_VALUE;
+    }
+
+    /*
+     * Packs the first n points of the coordinate arrays.
+     * 
+     * @return The packed points, xy[i] is the point with index i
+     */
+    static long[] pack(int n, int[] x, int[] y) {
+        long[] xy = new long[n];
+        for (int i = 0; i < n; i++) {
+            xy[i] = pack(x[i], y[i]);
+        }
+        return xy;
+    }
+
+    /*
+     * Unpacks the first n points into the coordinate arrays.
+     */
+    static void unpack(int n, long[] xy, int[] x, int[] y) {
+        for (int i = 0; i < n; i++) {
+            x[i] = x(xy[i]);
+            y[i] = y(xy[i]);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * A binary file of points, for datasets too large to hold as int[] x and y.
+ * The file is a header of HEADER_BYTES followed by the points:
+ * 
+ * - bytes 0-3: the magic number MAGIC
+ * - bytes 4-7: the format version, VERSION
+ * - bytes 8-15: the number of points
+ * - bytes 16-31: the smallest and largest x-coordinate, then the smallest and
+ * largest y-coordinate, or 0 if there are no points
+ * - then 8 bytes per point, the point packed as in PackedPoints
+ * 
+ * All numbers are little-endian. Because the points are stored packed, a mapped
+ * part of the file is read straight into IncrementalHull without copying it to
+ * the heap, so a file larger than the heap is processed with memory bounded by
+ * the size of the hull and of one segment, see hull().
+ * 
+ * Usage: 'java PointFile <n> [seed] <file>' writes the points NPunkter17
+ * generates to a file, and 'java PointFile <file>' finds the hull of a file.
+ */
+public class PointFile {
+    static final int MAGIC = 0x48554C4C; // "HULL"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int SEGMENT_POINTS = 1 << 20; // Points mapped at a time, 8 MB
+
+    public final long n;
+    public final int minX, maxX, minY, maxY;
+    private final Path path;
+
+    private PointFile(Path path, long n, int minX, int maxX, int minY, int maxY) {
+        this.path = path;
+        this.n = n;
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minY = minY;
+        this.maxY = maxY;
+    }
+
+    /*
+     * Opens a point file and reads its header.
+     * 
+     * @throws IOException If the file can't be read or is not a point file
+     */
+    public static PointFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) != -1)
+                ;
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not a point file");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(path + " has unknown version " + header.getInt(4));
+            }
+            long n = header.getLong(8);
+            if (channel.size() < HEADER_BYTES + 8 * n) {
+                throw new IOException(path + " is shorter than its " + n + " points");
+            }
+            return new PointFile(path, n, header.getInt(16), header.getInt(20), header.getInt(24),
+                    header.getInt(28));
+        }
+    }
+
+    /*
+     * Finds the convex hull of the points in the file. The file is mapped a
+     * segment at a time, and every segment is added to the hull as a batch.
+     * 
+     * @param engine The engine to filter the segments with, or null to do it in
+     * this thread
+     * 
+     * @return The hull of all the points in the file
+     */
+    public IncrementalHull hull(HullEngine engine) throws IOException {
+        IncrementalHull hull = new IncrementalHull(engine);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (long first = 0; first < n; first += SEGMENT_POINTS) {
+                long count = Math.min(SEGMENT_POINTS, n - first);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + 8 * first,
+                        8 * count);
+                hull.addPoints(segment.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+            }
+        }
+        return hull;
+    }
+
+    /*
+     * Writes a point file in batches, so the points never have to be in memory at
+     * once. The header is written when the writer is closed.
+     */
+    public static class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(8 * 8192).order(ByteOrder.LITTLE_ENDIAN);
+        private long n = 0;
+        private int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+        private int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+
+        public Writer(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            channel.position(HEADER_BYTES);
+        }
+
+        /*
+         * Appends the points in x[0, count) and y[0, count).
+         */
+        public void write(int[] x, int[] y, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                buffer.putLong(PackedPoints.pack(x[i], y[i]));
+                minX = Math.min(minX, x[i]);
+                maxX = Math.max(maxX, x[i]);
+                minY = Math.min(minY, y[i]);
+                maxY = Math.max(maxY, y[i]);
+            }
+            n += count;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putLong(n);
+                if (n > 0) {
+                    header.putInt(minX).putInt(maxX).putInt(minY).putInt(maxY);
+                }
+                header.clear();
+                channel.write(header, 0);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /*
+     * Writes the n points NPunkter17 generates for a seed to a point file, in
+     * batches.
+     */
+    public static void convert(int n, int seed, Path path) throws IOException {
+        NPunkter17 generator = new NPunkter17(n, seed);
+        int batch = Math.min(n, SEGMENT_POINTS);
+        int[] x = new int[batch];
+        int[] y = new int[batch];
+        try (Writer writer = new Writer(path)) {
+            for (int done = 0; done < n; done += batch) {
+                int count = Math.min(batch, n - done);
+                generator.fyllArrayer(x, y, count);
+                writer.write(x, y, count);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 1) {
+            PointFile file = open(Paths.get(args[0]));
+            long start = System.currentTimeMillis();
+            IncrementalHull hull = file.hull(HullEngine.shared());
+            long end = System.currentTimeMillis();
+            System.out.println(file.n + " points, " + hull.size() + " corners on the hull, " + (end - start) + " ms");
+        } else if (args.length == 2 || args.length == 3) {
+            int n = Integer.parseInt(args[0]);
+            int seed = args.length == 3 ? Integer.parseInt(args[1]) : 0;
+            convert(n, seed, Paths.get(args[args.length - 1]));
+        } else {
+            System.out.println("Usage: 'java PointFile <n> [seed] <file>' to write generated points to a file,"
+                    + " or 'java PointFile <file>' to find the hull of a file.");
+        }
+    }
+}
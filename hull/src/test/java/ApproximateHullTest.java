@@ -0,0 +1,108 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/*
+ * Checks that the approximate hull is convex, starts where findHullSeq does,
+ * and is within its error of every point, measured by brute force, and that
+ * the error is within epsilon.
+ */
+class ApproximateHullTest {
+    static HullEngine engine;
+
+    @BeforeAll
+    static void startEngine() {
+        engine = new HullEngine(4);
+    }
+
+    @AfterAll
+    static void closeEngine() {
+        engine.close();
+    }
+
+    static List<TestPoints> small() {
+        return TestPoints.small();
+    }
+
+    static List<TestPoints> all() {
+        return TestPoints.all();
+    }
+
+    /*
+     * Returns epsilons from a strip per column to a single strip.
+     */
+    static double[] epsilons(TestPoints p) {
+        long span = 0;
+        if (p.n > 0) {
+            long min = Arrays.stream(p.x).min().getAsInt(), max = Arrays.stream(p.x).max().getAsInt();
+            span = max - min;
+        }
+        return new double[] { span < ApproximateHull.MAX_STRIPS ? 0 : span / 1000.0, span / 100.0, span / 7.0,
+                2.0 * span };
+    }
+
+    @ParameterizedTest
+    @MethodSource("small")
+    void everyPointIsWithinTheError(TestPoints p) {
+        ConvexHull hull = new ConvexHull(p.n, p.x, p.y);
+        for (double epsilon : epsilons(p)) {
+            ApproximateHull approximate = hull.findHullApprox(epsilon);
+            assertTrue(approximate.error <= epsilon, "error " + approximate.error + " above " + epsilon);
+
+            long[] corners = new long[approximate.corners.size()];
+            for (int i = 0; i < corners.length; i++) {
+                int c = approximate.corners.get(i);
+                corners[i] = PackedPoints.pack(p.x[c], p.y[c]);
+            }
+            if (corners.length > 0) {
+                assertEquals(Arrays.stream(p.x).max().getAsInt(), PackedPoints.x(corners[0]));
+            }
+            for (int i = 0; corners.length >= 3 && i < corners.length; i++) {
+                assertTrue(BruteForce.orientation(corners[i], corners[(i + 1) % corners.length],
+                        corners[(i + 2) % corners.length]) > 0, "not strictly convex");
+            }
+
+            // The distances are in doubles, so allow for their rounding
+            double tolerance = 1e-9 * Math.max(1, Math.abs(epsilon));
+            for (int i = 0; i < p.n; i++) {
+                double distance = BruteForce.distance(corners, p.x[i], p.y[i]);
+                assertTrue(distance <= approximate.error + tolerance,
+                        "point " + i + " is " + distance + " away, error " + approximate.error);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("all")
+    void parallelPassMatchesSequential(TestPoints p) {
+        ConvexHull hull = new ConvexHull(p.n, p.x, p.y);
+        for (double epsilon : epsilons(p)) {
+            ApproximateHull sequential = hull.findHullApprox(epsilon);
+            ApproximateHull parallel = hull.findHullApprox(epsilon, engine);
+            assertArrayEquals(Arrays.copyOf(sequential.corners.data, sequential.corners.len),
+                    Arrays.copyOf(parallel.corners.data, parallel.corners.len));
+            assertEquals(sequential.strips, parallel.strips);
+            assertEquals(sequential.error, parallel.error);
+        }
+    }
+
+    @Test
+    void invalidEpsilonsAreRejected() {
+        TestPoints p = TestPoints.full("full int range", 100, new Random(1));
+        ConvexHull hull = new ConvexHull(p.n, p.x, p.y);
+        assertThrows(IllegalArgumentException.class, () -> hull.findHullApprox(-1));
+        assertThrows(IllegalArgumentException.class, () -> hull.findHullApprox(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> hull.findHullApprox(0));
+    }
+}
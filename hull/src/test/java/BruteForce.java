@@ -0,0 +1,153 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/*
+ * Slow but simple versions of what the hull classes compute, for the tests to
+ * check them against. Orientations are computed with BigInteger when a long
+ * could overflow, so they are exact for any int coordinates.
+ */
+class BruteForce {
+
+    private BruteForce() {
+    }
+
+    /*
+     * Returns 1 if c is to the left of the line from a to b, -1 if it is to the
+     * right and 0 if it is on the line.
+     */
+    static int orientation(long ax, long ay, long bx, long by, long cx, long cy) {
+        long dx1 = bx - ax, dy1 = cy - ay, dy2 = by - ay, dx2 = cx - ax;
+        long max = Math.max(Math.max(Math.abs(dx1), Math.abs(dy1)), Math.max(Math.abs(dy2), Math.abs(dx2)));
+        if (max <= Integer.MAX_VALUE) {
+            // Both products are below 2^62, so their difference fits in a long
+            return Long.signum(dx1 * dy1 - dy2 * dx2);
+        }
+        BigInteger left = BigInteger.valueOf(dx1).multiply(BigInteger.valueOf(dy1));
+        BigInteger right = BigInteger.valueOf(dy2).multiply(BigInteger.valueOf(dx2));
+        return left.compareTo(right);
+    }
+
+    static int orientation(long a, long b, long c) {
+        return orientation(PackedPoints.x(a), PackedPoints.y(a), PackedPoints.x(b), PackedPoints.y(b),
+                PackedPoints.x(c), PackedPoints.y(c));
+    }
+
+    /*
+     * Finds the corners of the convex hull of the first n points by gift
+     * wrapping: from the smallest point, the next corner is the point no other
+     * point is to the right of, the furthest one if several are on a line.
+     * 
+     * @return The corners as packed points, counterclockwise starting with the
+     * one with the smallest x-coordinate, and the smallest y-coordinate among
+     * those. One point if all the points are at the same place, and the two ends
+     * if they are on a line
+     */
+    static long[] corners(int n, int[] x, int[] y) {
+        if (n == 0) {
+            return new long[0];
+        }
+        long[] points = new long[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = PackedPoints.pack(x[i], y[i]);
+        }
+        long start = points[0];
+        for (long p : points) {
+            if (smaller(p, start)) {
+                start = p;
+            }
+        }
+
+        long[] corners = new long[n + 1];
+        int h = 0;
+        long current = start;
+        do {
+            corners[h++] = current;
+            long next = current;
+            for (long p : points) {
+                if (p == current) {
+                    continue;
+                }
+                int o = next == current ? -1 : orientation(current, next, p);
+                if (o < 0 || o == 0 && distance(current, p) > distance(current, next)) {
+                    next = p;
+                }
+            }
+            current = next;
+        } while (current != start);
+        return Arrays.copyOf(corners, h);
+    }
+
+    /*
+     * Checks if a point is inside the convex polygon with the given corners,
+     * counterclockwise, or on its boundary. A polygon with fewer than three
+     * corners contains nothing.
+     */
+    static boolean contains(long[] corners, long p) {
+        int h = corners.length;
+        if (h < 3) {
+            return false;
+        }
+        for (int i = 0; i < h; i++) {
+            if (orientation(corners[i], corners[(i + 1) % h], p) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Returns the distance from a point to the convex polygon with the given
+     * corners, counterclockwise, 0 if the point is inside it.
+     */
+    static double distance(long[] corners, double px, double py) {
+        int h = corners.length;
+        boolean inside = h >= 3;
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < h; i++) {
+            double ax = PackedPoints.x(corners[i]), ay = PackedPoints.y(corners[i]);
+            double bx = PackedPoints.x(corners[(i + 1) % h]), by = PackedPoints.y(corners[(i + 1) % h]);
+            double dx = bx - ax, dy = by - ay;
+            if (dx * (py - ay) - dy * (px - ax) < 0) {
+                inside = false;
+            }
+            double length = dx * dx + dy * dy;
+            double t = length == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / length));
+            best = Math.min(best, Math.hypot(px - ax - t * dx, py - ay - t * dy));
+        }
+        return inside ? 0 : best;
+    }
+
+    /*
+     * Checks if a point is on the boundary of the convex polygon with the given
+     * corners, counterclockwise, on one of its edges or at one of its corners.
+     */
+    static boolean onBoundary(long[] corners, long p) {
+        int h = corners.length;
+        for (int i = 0; i < h; i++) {
+            long a = corners[i], b = corners[(i + 1) % h];
+            if (orientation(a, b, p) == 0 && between(PackedPoints.x(a), PackedPoints.x(p), PackedPoints.x(b))
+                    && between(PackedPoints.y(a), PackedPoints.y(p), PackedPoints.y(b))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean between(int a, int v, int b) {
+        return Math.min(a, b) <= v && v <= Math.max(a, b);
+    }
+
+    /*
+     * Orders points by x and then y.
+     */
+    static boolean smaller(long a, long b) {
+        return PackedPoints.x(a) < PackedPoints.x(b)
+                || PackedPoints.x(a) == PackedPoints.x(b) && PackedPoints.y(a) < PackedPoints.y(b);
+    }
+
+    // The distance along a line, only used to compare points on the same line
+    static long distance(long a, long b) {
+        return Math.abs((long) PackedPoints.x(a) - PackedPoints.x(b))
+                + Math.abs((long) PackedPoints.y(a) - PackedPoints.y(b));
+    }
+}
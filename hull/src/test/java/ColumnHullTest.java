@@ -0,0 +1,83 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/*
+ * Checks ColumnHull against findHullSeq on datasets narrow enough for it,
+ * where many points share a column and the first and last columns are often
+ * vertical edges.
+ */
+class ColumnHullTest {
+    static HullEngine engine;
+
+    @BeforeAll
+    static void startEngine() {
+        engine = new HullEngine(4);
+    }
+
+    @AfterAll
+    static void closeEngine() {
+        engine.close();
+    }
+
+    static List<TestPoints> narrow() {
+        Random r = new Random(23);
+        List<TestPoints> narrow = new ArrayList<>();
+        narrow.add(TestPoints.generated("NPunkter17", 1000, 1));
+        narrow.add(TestPoints.generated("NPunkter17", 300_000, 2));
+        narrow.add(TestPoints.uniform("small grid", 5000, 10, r));
+        narrow.add(TestPoints.repeated("repeated points", 1000, 4, r));
+        narrow.add(TestPoints.square("square with edges", 20_000, r));
+
+        // A few columns of points spread far apart in y
+        int n = 200_000;
+        int[] x = new int[n], y = new int[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = r.nextInt(5) - 2;
+            y[i] = r.nextInt();
+        }
+        narrow.add(new TestPoints("tall columns", x, y));
+
+        // A single column, which is all on a line
+        int[] column = new int[100];
+        int[] heights = new int[100];
+        for (int i = 0; i < 100; i++) {
+            heights[i] = r.nextInt(1000);
+        }
+        narrow.add(new TestPoints("one column", column, heights));
+        return narrow;
+    }
+
+    @ParameterizedTest
+    @MethodSource("narrow")
+    void columnsMatchFindHullSeq(TestPoints p) {
+        ConvexHull hull = new ConvexHull(p.n, p.x, p.y);
+        assertTrue(ColumnHull.fits(hull));
+        IntList expected = hull.findHullSeq();
+        int[] seq = Arrays.copyOf(expected.data, expected.len);
+        IntList sequential = ColumnHull.findHull(hull, null);
+        IntList parallel = ColumnHull.findHull(hull, engine);
+        assertArrayEquals(seq, Arrays.copyOf(sequential.data, sequential.len));
+        assertArrayEquals(seq, Arrays.copyOf(parallel.data, parallel.len));
+    }
+
+    @Test
+    void wideDatasetsDoNotFit() {
+        assertFalse(ColumnHull.fits(new ConvexHull(0, new int[0], new int[0])));
+        TestPoints uniform = TestPoints.uniform("uniform", 1000, 1_000_000, new Random(1));
+        assertFalse(ColumnHull.fits(new ConvexHull(uniform.n, uniform.x, uniform.y)));
+        TestPoints full = TestPoints.full("full int range", 1000, new Random(1));
+        assertFalse(ColumnHull.fits(new ConvexHull(full.n, full.x, full.y)));
+    }
+}
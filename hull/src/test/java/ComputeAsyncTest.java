@@ -0,0 +1,190 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/*
+ * Checks that computeAsync finds the same hull as findHullSeq, and that a
+ * cancelled or timed out computation stops every part of the recursion and
+ * leaves the engine idle and able to find the next hull.
+ */
+class ComputeAsyncTest {
+    static final TestPoints CIRCLE = TestPoints.circle("large circle", 200_000, 1 << 28, new Random(19));
+
+    HullEngine engine;
+
+    @BeforeEach
+    void startEngine() {
+        engine = new HullEngine(4);
+        engine.setForkThreshold(4);
+    }
+
+    @AfterEach
+    void closeEngine() {
+        engine.close();
+    }
+
+    static List<TestPoints> datasets() {
+        return TestPoints.all();
+    }
+
+    static void assertHull(IntList expected, IntList actual) {
+        assertArrayEquals(Arrays.copyOf(expected.data, expected.len), Arrays.copyOf(actual.data, actual.len));
+    }
+
+    @ParameterizedTest
+    @MethodSource("datasets")
+    void computeAsyncMatchesFindHullSeq(TestPoints p) throws Exception {
+        IntList expected = new ConvexHull(p.n, p.x, p.y).findHullSeq();
+        ConvexHull hull = new ConvexHull(p.n, p.x, p.y);
+        CompletableFuture<IntList> first = hull.computeAsync(engine);
+        CompletableFuture<IntList> second = hull.computeAsync(engine, 1, TimeUnit.MINUTES);
+        assertHull(expected, first.get());
+        assertHull(expected, second.get());
+    }
+
+    // After a computation has failed, the engine must go idle and find the next
+    // hull of the same ConvexHull correctly
+    void checkEngineRecovers(ConvexHull hull, TestPoints p) throws Exception {
+        assertTrue(engine.pool().awaitQuiescence(1, TimeUnit.MINUTES));
+        assertEquals(0, engine.pool().getActiveThreadCount());
+        engine.setMetrics(HullMetrics.NONE);
+        IntList expected = new ConvexHull(p.n, p.x, p.y).findHullSeq();
+        assertHull(expected, hull.computeAsync(engine).get());
+        assertHull(expected, hull.findHullPar(engine));
+    }
+
+    @Test
+    void cancelRightAway() throws Exception {
+        ConvexHull hull = new ConvexHull(CIRCLE.n, CIRCLE.x, CIRCLE.y);
+        CompletableFuture<IntList> future = hull.computeAsync(engine);
+        future.cancel(true);
+        assertThrows(CancellationException.class, future::get);
+        checkEngineRecovers(hull, CIRCLE);
+    }
+
+    @Test
+    void timeOutRightAway() throws Exception {
+        ConvexHull hull = new ConvexHull(CIRCLE.n, CIRCLE.x, CIRCLE.y);
+        CompletableFuture<IntList> future = hull.computeAsync(engine, 1, TimeUnit.NANOSECONDS);
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        checkEngineRecovers(hull, CIRCLE);
+    }
+
+    /*
+     * Metrics which stop at a given point of the computation until the test has
+     * cancelled it, and count the phases and tasks reported after that.
+     */
+    static class CancelAt implements HullMetrics {
+        final HullMetrics.Phase phase; // The phase to stop after, or null to stop at a task
+        final int task; // The fork/join task to stop at, counted from 1
+        final CountDownLatch reached = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final AtomicInteger tasks = new AtomicInteger();
+        final AtomicInteger phasesAfter = new AtomicInteger(), tasksAfter = new AtomicInteger();
+        volatile boolean after = false;
+
+        CancelAt(HullMetrics.Phase phase, int task) {
+            this.phase = phase;
+            this.task = task;
+        }
+
+        @Override
+        public void phase(Phase phase, int points, long nanos) {
+            if (after) {
+                phasesAfter.incrementAndGet();
+            } else if (phase == this.phase) {
+                stop();
+            }
+        }
+
+        @Override
+        public void task(int level, int points, boolean sequential) {
+            if (after) {
+                tasksAfter.incrementAndGet();
+            } else if (phase == null && tasks.incrementAndGet() == task) {
+                stop();
+            }
+        }
+
+        private void stop() {
+            reached.countDown();
+            try {
+                cancelled.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            after = true;
+        }
+
+        // Cancels the computation once it has reached the point to stop at
+        void cancel(CompletableFuture<IntList> future) throws InterruptedException {
+            assertTrue(reached.await(1, TimeUnit.MINUTES));
+            future.cancel(true);
+            cancelled.countDown();
+            assertThrows(CancellationException.class, future::get);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = HullMetrics.Phase.class, names = { "EXTREMES", "PARTITION" })
+    void cancelStopsBeforeTheNextPhase(HullMetrics.Phase phase) throws Exception {
+        // Cancelled after the extremes, the split of the points stops at its next
+        // chunk; cancelled after the split, the recursion never starts
+        CancelAt metrics = new CancelAt(phase, 0);
+        engine.setMetrics(metrics);
+        ConvexHull hull = new ConvexHull(CIRCLE.n, CIRCLE.x, CIRCLE.y);
+        metrics.cancel(hull.computeAsync(engine));
+        checkEngineRecovers(hull, CIRCLE);
+        assertEquals(0, metrics.phasesAfter.get());
+        assertEquals(0, metrics.tasksAfter.get());
+    }
+
+    @Test
+    void cancelStopsSequentialRecursion() throws Exception {
+        // Too few points to fork, so both halves are found by seqRec after the
+        // first task is reported
+        TestPoints p = TestPoints.circle("circle", 1000, 1 << 20, new Random(19));
+        CancelAt metrics = new CancelAt(null, 1);
+        engine.setMetrics(metrics);
+        ConvexHull hull = new ConvexHull(p.n, p.x, p.y);
+        metrics.cancel(hull.computeAsync(engine));
+        checkEngineRecovers(hull, p);
+        assertEquals(0, metrics.phasesAfter.get());
+        assertTrue(metrics.tasksAfter.get() <= 1);
+    }
+
+    @Test
+    void cancelStopsForkedTasks() throws Exception {
+        CancelAt metrics = new CancelAt(null, 20);
+        engine.setMetrics(metrics);
+        ConvexHull hull = new ConvexHull(CIRCLE.n, CIRCLE.x, CIRCLE.y);
+        metrics.cancel(hull.computeAsync(engine));
+        checkEngineRecovers(hull, CIRCLE);
+
+        // Only the tasks which had checked the flag before it was set, at most
+        // one per thread, may still report themselves
+        assertEquals(0, metrics.phasesAfter.get());
+        assertTrue(metrics.tasksAfter.get() <= engine.numThreads(), metrics.tasksAfter + " tasks after");
+    }
+}
@@ -0,0 +1,204 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/*
+ * Checks that every way of finding the hull returns the same list as
+ * findHullSeq, the points on the hull counterclockwise from the one with the
+ * largest x-coordinate, on the datasets of TestPoints.
+ */
+class ConvexHullTest {
+    static final List<TestPoints> DATASETS = TestPoints.all();
+
+    // An engine which forks every subset it may, so the tasks are split as far as
+    // they go even on the small datasets
+    static HullEngine engine;
+
+    @BeforeAll
+    static void startEngine() {
+        engine = new HullEngine(4);
+        engine.setForkThreshold(4);
+    }
+
+    @AfterAll
+    static void closeEngine() {
+        engine.close();
+    }
+
+    static List<TestPoints> datasets() {
+        return DATASETS;
+    }
+
+    static void assertHull(IntList expected, IntList actual, String message) {
+        assertArrayEquals(Arrays.copyOf(expected.data, expected.len), Arrays.copyOf(actual.data, actual.len),
+                message);
+    }
+
+    @Test
+    void findHullSeqListsTheHullCounterclockwise() {
+        // A diamond with a point on its upper right edge and one inside it
+        int[] x = { 0, 4, 8, 4, 6, 4 };
+        int[] y = { 0, -4, 0, 4, 2, 0 };
+        IntList coHull = new ConvexHull(x.length, x, y).findHullSeq();
+        assertArrayEquals(new int[] { 2, 4, 3, 0, 1 }, Arrays.copyOf(coHull.data, coHull.len));
+    }
+
+    @ParameterizedTest
+    @MethodSource("datasets")
+    void findHullSeqMatchesBruteForce(TestPoints p) {
+        ConvexHull hull = new ConvexHull(p.n, p.x, p.y);
+        IntList coHull = hull.findHullSeq();
+
+        // findHullSeq only finds a hull if there are points strictly on both sides
+        // of the line from the point with the smallest x-coordinate to the one
+        // with the largest
+        boolean above = false, below = false;
+        if (p.n > 0) {
+            long minX = PackedPoints.pack(p.x[hull.extremes.minX], p.y[hull.extremes.minX]);
+            long maxX = PackedPoints.pack(p.x[hull.extremes.maxX], p.y[hull.extremes.maxX]);
+            for (int i = 0; i < p.n; i++) {
+                int o = BruteForce.orientation(minX, maxX, PackedPoints.pack(p.x[i], p.y[i]));
+                above |= o > 0;
+                below |= o < 0;
+            }
+        }
+        if (!above || !below) {
+            assertEquals(0, coHull.size());
+            return;
+        }
+
+        // Every place on the boundary of the hull is listed, no point is listed
+        // twice, though a point at the same place as a listed one may be left out
+        long[] corners = BruteForce.corners(p.n, p.x, p.y);
+        boolean[] listed = new boolean[p.n];
+        Set<Long> places = new HashSet<>();
+        for (int k = 0; k < coHull.size(); k++) {
+            int i = coHull.get(k);
+            assertTrue(!listed[i], "point " + i + " is listed twice");
+            listed[i] = true;
+            places.add(PackedPoints.pack(p.x[i], p.y[i]));
+        }
+        for (int i = 0; i < p.n; i++) {
+            long place = PackedPoints.pack(p.x[i], p.y[i]);
+            assertEquals(BruteForce.onBoundary(corners, place), places.contains(place), "point " + i);
+        }
+
+        // The list starts with maxX, and every point is on or to the left of the
+        // line from each listed point to the next, so they go around the hull
+        // counterclockwise
+        assertEquals(hull.extremes.maxX, coHull.get(0));
+        for (int k = 0; k < coHull.size(); k++) {
+            int a = coHull.get(k), b = coHull.get((k + 1) % coHull.size());
+            long pa = PackedPoints.pack(p.x[a], p.y[a]), pb = PackedPoints.pack(p.x[b], p.y[b]);
+            for (long c : corners) {
+                assertTrue(BruteForce.orientation(pa, pb, c) >= 0, "edge from " + a + " to " + b);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("datasets")
+    void algorithmsMatchFindHullSeq(TestPoints p) {
+        IntList expected = new ConvexHull(p.n, p.x, p.y).findHullSeq();
+        HullAlgorithm[] algorithms = { HullAlgorithm.QUICKHULL, HullAlgorithm.MONOTONE_CHAIN, HullAlgorithm.CHAN,
+                HullAlgorithm.COLUMNS, HullAlgorithm.AUTO, HullAlgorithm.quickhull(engine),
+                HullAlgorithm.monotoneChain(engine), HullAlgorithm.columns(engine), HullAlgorithm.chunked(engine),
+                HullAlgorithm.auto(engine) };
+        for (int a = 0; a < algorithms.length; a++) {
+            IntList actual = new ConvexHull(p.n, p.x, p.y).findHull(algorithms[a]);
+            assertHull(expected, actual, "algorithm " + a);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("datasets")
+    void findHullParMatchesFindHullSeq(TestPoints p) {
+        IntList expected = new ConvexHull(p.n, p.x, p.y).findHullSeq();
+        assertHull(expected, new ConvexHull(p.n, p.x, p.y).findHullPar(engine), "findHullPar");
+        assertHull(expected, new ConvexHull(p.n, p.x, p.y, engine).findHullPar(engine), "parallel extremes");
+        assertHull(expected, new ConvexHull(p.n, p.x, p.y).findHullPar(), "shared engine");
+    }
+
+    @Test
+    void parallelAssemblyMatchesFindHullSeq() {
+        // Every point of a large circle is on the hull, so the tasks return sub-hulls
+        // large enough for the writes to be forked too
+        TestPoints circle = TestPoints.circle("large circle", 300_000, 1 << 28, new Random(24));
+        IntList expected = new ConvexHull(circle.n, circle.x, circle.y).findHullSeq();
+        assertHull(expected, new ConvexHull(circle.n, circle.x, circle.y).findHullPar(engine), "findHullPar");
+    }
+
+    @Test
+    void writeTaskPlacesEverySubHull() {
+        // A lopsided tree of leaves of every size around the fork size, so some
+        // subtrees are forked and some written in the loop
+        int[] sizes = { 3, ConvexHull.WriteTask.FORK_SIZE, 0, ConvexHull.WriteTask.FORK_SIZE + 7, 1,
+                3 * ConvexHull.WriteTask.FORK_SIZE, 12 };
+        int next = 0;
+        ConvexHull.SubHull tree = null;
+        for (int size : sizes) {
+            IntList leaf = new IntList(Math.max(1, size));
+            for (int i = 0; i < size; i++) {
+                leaf.add(next++);
+            }
+            if (tree == null) {
+                tree = new ConvexHull.SubHull(leaf);
+            } else {
+                int p3 = next++;
+                tree = next % 2 == 0 ? new ConvexHull.SubHull(tree, p3, new ConvexHull.SubHull(leaf))
+                        : new ConvexHull.SubHull(new ConvexHull.SubHull(leaf), p3, tree);
+            }
+        }
+        int[] out = new int[tree.size];
+        engine.pool().invoke(new ConvexHull.WriteTask(tree, out, 0));
+
+        // The same points in the order the tree holds them, written sequentially
+        int[] expected = new int[tree.size];
+        write(tree, expected, 0);
+        assertArrayEquals(expected, out);
+    }
+
+    private static int write(ConvexHull.SubHull s, int[] out, int at) {
+        if (s.points != null) {
+            System.arraycopy(s.points.data, 0, out, at, s.size);
+            return at + s.size;
+        }
+        at = write(s.right, out, at);
+        out[at++] = s.p3;
+        return write(s.left, out, at);
+    }
+
+    @ParameterizedTest
+    @MethodSource("datasets")
+    void findHullInPlaceMatchesFindHullSeq(TestPoints p) {
+        IntList expected = new ConvexHull(p.n, p.x, p.y).findHullSeq();
+        assertHull(expected, new ConvexHull(p.n, p.x, p.y).findHullInPlace(), "findHullInPlace");
+
+        ConvexHull packed = new ConvexHull(p.n, PackedPoints.pack(p.n, p.x, p.y));
+        assertHull(expected, packed.findHullInPlace(), "packed, findHullInPlace");
+        assertHull(expected, packed.findHullSeq(), "packed, findHullSeq");
+    }
+
+    @ParameterizedTest
+    @MethodSource("datasets")
+    void cullingKeepsTheHull(TestPoints p) {
+        IntList expected = new ConvexHull(p.n, p.x, p.y).findHullSeq();
+        ConvexHull hull = new ConvexHull(p.n, p.x, p.y);
+        hull.setCulling(true);
+        assertHull(expected, hull.findHullSeq(), "findHullSeq");
+        assertHull(expected, hull.findHullPar(engine), "findHullPar");
+        assertHull(expected, hull.findHullInPlace(), "findHullInPlace");
+    }
+}
@@ -0,0 +1,158 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/*
+ * Checks the corners of DynamicHull against gift wrapping after every insertion
+ * and deletion of a random sequence, and against findHullSeq on the datasets.
+ */
+class DynamicHullTest {
+
+    /*
+     * @param range The coordinates are in [-range, range], 0 for the whole int
+     * range
+     */
+    @ParameterizedTest
+    @ValueSource(ints = { 3, 30, 1000, 0 })
+    void cornersMatchBruteForce(int range) {
+        Random r = new Random(range);
+        for (int run = 0; run < 20; run++) {
+            int window = 1 + r.nextInt(run % 4 == 0 ? 6 : 150);
+            boolean onLine = run % 5 == 4;
+            int[] x = new int[window], y = new int[window];
+            boolean[] in = new boolean[window];
+            DynamicHull hull = new DynamicHull(x, y);
+            int size = 0;
+            for (int step = 0; step < 4 * window + 20; step++) {
+                int p = r.nextInt(window);
+                if (in[p]) {
+                    assertTrue(hull.remove(p));
+                    assertFalse(hull.remove(p));
+                    size--;
+                } else {
+                    x[p] = range == 0 ? r.nextInt() : r.nextInt(2 * range + 1) - range;
+                    y[p] = onLine ? x[p] / 2 * 2 : range == 0 ? r.nextInt() : r.nextInt(2 * range + 1) - range;
+                    hull.add(p);
+                    size++;
+                }
+                in[p] = !in[p];
+                assertEquals(size, hull.size());
+                assertArrayEquals(expected(x, y, in), actual(hull.corners(), x, y, in));
+            }
+        }
+    }
+
+    static List<TestPoints> datasets() {
+        return TestPoints.all();
+    }
+
+    /*
+     * The corners are the points findHullSeq lists which are corners, one for each
+     * place, in the same order. Where findHullSeq is empty, they are the corners
+     * BruteForce finds.
+     */
+    @ParameterizedTest
+    @MethodSource("datasets")
+    void cornersMatchFindHullSeq(TestPoints p) {
+        DynamicHull hull = new DynamicHull(p.x, p.y);
+        boolean[] in = new boolean[p.n];
+        for (int i = 0; i < p.n; i++) {
+            hull.add(i);
+            in[i] = true;
+        }
+        long[] corners = actual(hull.corners(), p.x, p.y, in);
+        IntList coHull = new ConvexHull(p.n, p.x, p.y).findHullSeq();
+        if (coHull.size() == 0) {
+            assertArrayEquals(expected(p.x, p.y, in), corners);
+            return;
+        }
+
+        // The places findHullSeq lists, without repeats and points on an edge
+        long[] places = new long[coHull.size()];
+        int m = 0;
+        for (int k = 0; k < coHull.size(); k++) {
+            long place = PackedPoints.pack(p.x[coHull.get(k)], p.y[coHull.get(k)]);
+            if (m == 0 || places[m - 1] != place) {
+                places[m++] = place;
+            }
+        }
+        if (m > 1 && places[m - 1] == places[0]) {
+            m--;
+        }
+        long[] strict = new long[m];
+        int h = 0;
+        for (int k = 0; k < m; k++) {
+            if (BruteForce.orientation(places[(k + m - 1) % m], places[k], places[(k + 1) % m]) != 0) {
+                strict[h++] = places[k];
+            }
+        }
+
+        // Rotated to start at the first corner of DynamicHull
+        assertEquals(h, corners.length);
+        int first = 0;
+        while (first < h && strict[first] != corners[0]) {
+            first++;
+        }
+        assertTrue(first < h, "the first corner is not listed by findHullSeq");
+        long[] rotated = new long[h];
+        for (int k = 0; k < h; k++) {
+            rotated[k] = strict[(first + k) % h];
+        }
+        assertArrayEquals(rotated, corners, Arrays.toString(corners));
+    }
+
+    /*
+     * Returns the corners of the points in the hull, counterclockwise from the
+     * largest one, the lower one if there are two, or none if they are on a line.
+     */
+    static long[] expected(int[] x, int[] y, boolean[] in) {
+        int m = 0;
+        int[] xs = new int[x.length], ys = new int[y.length];
+        for (int i = 0; i < x.length; i++) {
+            if (in[i]) {
+                xs[m] = x[i];
+                ys[m++] = y[i];
+            }
+        }
+        long[] corners = BruteForce.corners(m, xs, ys);
+        if (corners.length < 3) {
+            return new long[0];
+        }
+        int first = 0;
+        for (int i = 1; i < corners.length; i++) {
+            long c = corners[i], f = corners[first];
+            if (PackedPoints.x(c) > PackedPoints.x(f)
+                    || PackedPoints.x(c) == PackedPoints.x(f) && PackedPoints.y(c) < PackedPoints.y(f)) {
+                first = i;
+            }
+        }
+        long[] rotated = new long[corners.length];
+        for (int i = 0; i < corners.length; i++) {
+            rotated[i] = corners[(first + i) % corners.length];
+        }
+        return rotated;
+    }
+
+    /*
+     * Returns the places of the corners, checking that they are all points in the
+     * hull.
+     */
+    static long[] actual(IntList corners, int[] x, int[] y, boolean[] in) {
+        long[] places = new long[corners.size()];
+        for (int i = 0; i < corners.size(); i++) {
+            int p = corners.get(i);
+            assertTrue(in[p], "corner " + p + " is not in the hull");
+            places[i] = PackedPoints.pack(x[p], y[p]);
+        }
+        return places;
+    }
+}
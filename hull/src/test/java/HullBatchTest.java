@@ -0,0 +1,104 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/*
+ * Checks that HullBatch finds the same hull for every set as findHullSeq finds
+ * for the set on its own, and that it rejects offsets which are not sets.
+ */
+class HullBatchTest {
+    static HullEngine engine;
+
+    @BeforeAll
+    static void startEngine() {
+        engine = new HullEngine(4);
+    }
+
+    @AfterAll
+    static void closeEngine() {
+        engine.close();
+    }
+
+    // Finds the hulls of the sets together and checks each against findHullSeq
+    static void checkBatch(List<TestPoints> sets, int first) {
+        int[] offsets = new int[sets.size() + 1];
+        offsets[0] = first;
+        for (int s = 0; s < sets.size(); s++) {
+            offsets[s + 1] = offsets[s] + sets.get(s).n;
+        }
+        int[] x = new int[offsets[sets.size()] + 5], y = new int[x.length];
+        for (int s = 0; s < sets.size(); s++) {
+            System.arraycopy(sets.get(s).x, 0, x, offsets[s], sets.get(s).n);
+            System.arraycopy(sets.get(s).y, 0, y, offsets[s], sets.get(s).n);
+        }
+
+        HullBatch batch = HullBatch.findHulls(x, y, offsets, engine);
+        assertEquals(sets.size(), batch.size());
+        for (int s = 0; s < sets.size(); s++) {
+            TestPoints p = sets.get(s);
+            IntList expected = new ConvexHull(p.n, p.x, p.y).findHullSeq();
+            int[] hull = Arrays.copyOfRange(batch.points, batch.offsets[s], batch.offsets[s + 1]);
+            for (int i = 0; i < hull.length; i++) {
+                hull[i] -= offsets[s];
+            }
+            assertArrayEquals(Arrays.copyOf(expected.data, expected.len), hull, p.toString());
+        }
+    }
+
+    @Test
+    void everyDatasetInOneBatch() {
+        checkBatch(TestPoints.all(), 0);
+    }
+
+    @Test
+    void manySmallSets() {
+        // Empty sets, sets of one and two points, and sets too small to have a hull
+        // between larger ones, enough of them to be split into several chunks
+        Random r = new Random(18);
+        List<TestPoints> sets = new ArrayList<>();
+        for (int s = 0; s < 2000; s++) {
+            int n = s % 7 == 0 ? 0 : s % 5 == 0 ? 1 + r.nextInt(2) : r.nextInt(40);
+            sets.add(TestPoints.uniform("set " + s, n, s % 3 == 0 ? 4 : 1000, r));
+        }
+        checkBatch(sets, 3);
+    }
+
+    @Test
+    void setsLargerThanAChunk() {
+        Random r = new Random(18);
+        List<TestPoints> sets = new ArrayList<>();
+        sets.add(TestPoints.uniform("large", HullEngine.MIN_CHUNK + 100, 1 << 20, r));
+        sets.add(new TestPoints("empty", new int[0], new int[0]));
+        sets.add(TestPoints.circle("large circle", 2 * HullEngine.MIN_CHUNK, 1 << 24, r));
+        sets.add(new TestPoints("one point", new int[] { 5 }, new int[] { 5 }));
+        checkBatch(sets, 0);
+    }
+
+    @Test
+    void noSets() {
+        HullBatch batch = HullBatch.findHulls(new int[0], new int[0], new int[] { 0 }, engine);
+        assertEquals(0, batch.size());
+        assertEquals(0, batch.points.length);
+    }
+
+    @Test
+    void rejectsOffsetsWhichAreNotSets() {
+        int[] x = new int[10], y = new int[10];
+        int[][] invalid = { {}, { 0, 5, 4, 10 }, { -1, 5 }, { 0, 11 }, { 5, 3 } };
+        for (int[] offsets : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> HullBatch.findHulls(x, y, offsets, engine),
+                    Arrays.toString(offsets));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> HullBatch.findHulls(x, new int[5], new int[] { 0, 10 }, engine));
+    }
+}
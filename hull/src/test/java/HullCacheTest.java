@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/*
+ * Checks that HullCache returns the hull findHullSeq finds, whether it is
+ * found or looked up, and that it counts and evicts the hulls it holds.
+ */
+class HullCacheTest {
+    static HullEngine engine;
+
+    @BeforeAll
+    static void startEngine() {
+        engine = new HullEngine(4);
+    }
+
+    @AfterAll
+    static void closeEngine() {
+        engine.close();
+    }
+
+    static List<TestPoints> datasets() {
+        return TestPoints.all();
+    }
+
+    static int[] hull(IntList coHull) {
+        return Arrays.copyOf(coHull.data, coHull.len);
+    }
+
+    @ParameterizedTest
+    @MethodSource("datasets")
+    void hullsMatchFindHullSeq(TestPoints p) {
+        int[] expected = hull(new ConvexHull(p.n, p.x, p.y).findHullSeq());
+        HullCache cache = new HullCache(engine, 4);
+        assertArrayEquals(expected, hull(cache.findHull(p.n, p.x, p.y)), "found");
+        assertArrayEquals(expected, hull(cache.findHull(p.n, p.x, p.y)), "looked up");
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void returnedHullsAreCopies() {
+        TestPoints p = TestPoints.uniform("uniform", 1000, 1000, new Random(25));
+        int[] expected = hull(new ConvexHull(p.n, p.x, p.y).findHullSeq());
+        HullCache cache = new HullCache(engine, 4);
+        IntList first = cache.findHull(p.n, p.x, p.y);
+        first.data[0] = -1;
+        first.add(-2);
+        IntList second = cache.findHull(p.n, p.x, p.y);
+        assertArrayEquals(expected, hull(second));
+        second.data[1] = -1;
+        assertArrayEquals(expected, hull(cache.findHull(p.n, p.x, p.y)));
+    }
+
+    @Test
+    void smallCacheHoldsItsCapacity() {
+        Random r = new Random(25);
+        TestPoints[] p = new TestPoints[3];
+        for (int i = 0; i < p.length; i++) {
+            p[i] = TestPoints.uniform("uniform", 500, 1000, r);
+        }
+        HullCache cache = new HullCache(engine, 2);
+        cache.findHull(p[0].n, p[0].x, p[0].y);
+        cache.findHull(p[1].n, p[1].x, p[1].y);
+        cache.findHull(p[0].n, p[0].x, p[0].y);
+        cache.findHull(p[1].n, p[1].x, p[1].y);
+        assertEquals(2, cache.size());
+        assertEquals(0, cache.evictions());
+        assertEquals(2, cache.hits());
+
+        cache.findHull(p[2].n, p[2].x, p[2].y);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+        assertEquals(3, cache.misses());
+    }
+
+    @Test
+    void capacityMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new HullCache(engine, 0));
+        assertThrows(IllegalArgumentException.class, () -> new HullCache(engine, -1));
+    }
+
+    @Test
+    void numberOfPointsIsPartOfTheKey() {
+        // The first four points are a diamond, the fifth is outside it
+        int[] x = { 0, 4, 8, 4, 12 };
+        int[] y = { 0, -4, 0, 4, 0 };
+        HullCache cache = new HullCache(engine, 4);
+        assertArrayEquals(hull(new ConvexHull(4, x, y).findHullSeq()), hull(cache.findHull(4, x, y)));
+        assertArrayEquals(hull(new ConvexHull(5, x, y).findHullSeq()), hull(cache.findHull(5, x, y)));
+        assertEquals(2, cache.misses());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void fingerprintDoesNotDependOnTheChunks() {
+        TestPoints p = TestPoints.uniform("large uniform", 300_000, 1 << 20, new Random(25));
+        try (HullEngine single = new HullEngine(1)) {
+            assertEquals(HullCache.fingerprint(single, p.n, p.x, p.y), HullCache.fingerprint(engine, p.n, p.x, p.y));
+        }
+    }
+}
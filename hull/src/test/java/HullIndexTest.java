@@ -0,0 +1,123 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/*
+ * Checks the queries of HullIndex against checking every corner of the hull,
+ * for random points and directions and for the points of the dataset.
+ */
+class HullIndexTest {
+    static final int QUERIES = 500;
+
+    static List<TestPoints> datasets() {
+        return TestPoints.small();
+    }
+
+    @ParameterizedTest
+    @MethodSource("datasets")
+    void queriesMatchBruteForce(TestPoints p) {
+        ConvexHull hull = new ConvexHull(p.n, p.x, p.y);
+        IntList coHull = hull.findHullSeq();
+        HullIndex index = new HullIndex(hull, coHull);
+
+        // The index is built from findHullSeq, which is empty if the points are
+        // not on both sides of the line through the ends
+        long[] corners = coHull.size() == 0 ? new long[0] : BruteForce.corners(p.n, p.x, p.y);
+        assertEquals(corners.length, index.size());
+
+        Random r = new Random(p.n);
+        long minX = Long.MAX_VALUE, maxX = Long.MIN_VALUE, minY = Long.MAX_VALUE, maxY = Long.MIN_VALUE;
+        for (int i = 0; i < p.n; i++) {
+            minX = Math.min(minX, p.x[i]);
+            maxX = Math.max(maxX, p.x[i]);
+            minY = Math.min(minY, p.y[i]);
+            maxY = Math.max(maxY, p.y[i]);
+        }
+        for (int q = 0; q < QUERIES; q++) {
+            int px, py;
+            if (p.n > 0 && q % 5 == 0) {
+                int i = r.nextInt(p.n);
+                px = p.x[i];
+                py = p.y[i];
+            } else if (q % 13 == 0) {
+                // Anywhere in the int range, so the box around the hull and the
+                // point may be too large for cross products in a long
+                px = r.nextInt();
+                py = r.nextInt();
+            } else {
+                px = around(minX, maxX, r);
+                py = around(minY, maxY, r);
+            }
+            long point = PackedPoints.pack(px, py);
+            boolean inside = BruteForce.contains(corners, point);
+            assertEquals(inside, index.contains(px, py), "contains " + px + ", " + py);
+
+            int dx = q % 7 == 0 ? r.nextInt() : r.nextInt(2001) - 1000;
+            int dy = q % 11 == 0 ? 0 : q % 7 == 0 ? r.nextInt() : r.nextInt(2001) - 1000;
+            checkExtreme(p, corners, index.extreme(dx, dy), dx, dy);
+
+            checkTangent(p, corners, inside, point, index.leftTangent(px, py), true);
+            checkTangent(p, corners, inside, point, index.rightTangent(px, py), false);
+        }
+    }
+
+    /*
+     * Returns a random coordinate in the range, or a little outside it, clamped
+     * to the int range.
+     */
+    static int around(long min, long max, Random r) {
+        if (min > max) {
+            return r.nextInt(21) - 10;
+        }
+        long span = max - min + 1;
+        long c = min - span / 4 + (long) (r.nextDouble() * span * 1.5);
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, c));
+    }
+
+    static void checkExtreme(TestPoints p, long[] corners, int extreme, int dx, int dy) {
+        if (corners.length == 0) {
+            assertEquals(-1, extreme);
+            return;
+        }
+        BigInteger best = null;
+        for (long c : corners) {
+            BigInteger dot = dot(PackedPoints.x(c), PackedPoints.y(c), dx, dy);
+            if (best == null || dot.compareTo(best) > 0) {
+                best = dot;
+            }
+        }
+        assertEquals(best, dot(p.x[extreme], p.y[extreme], dx, dy), "extreme " + dx + ", " + dy);
+    }
+
+    static BigInteger dot(long x, long y, long dx, long dy) {
+        return BigInteger.valueOf(x).multiply(BigInteger.valueOf(dx))
+                .add(BigInteger.valueOf(y).multiply(BigInteger.valueOf(dy)));
+    }
+
+    /*
+     * A tangent from a point outside the hull has every corner on one side of it,
+     * and touches the corner closest to the point if it goes along an edge.
+     */
+    static void checkTangent(TestPoints p, long[] corners, boolean inside, long point, int tangent, boolean left) {
+        if (corners.length == 0 || inside) {
+            assertEquals(-1, tangent);
+            return;
+        }
+        assertTrue(tangent >= 0, "no tangent from outside the hull");
+        long touched = PackedPoints.pack(p.x[tangent], p.y[tangent]);
+        for (long c : corners) {
+            int o = BruteForce.orientation(point, touched, c);
+            assertTrue(left ? o <= 0 : o >= 0, "corner on the wrong side of the tangent");
+            if (o == 0 && c != touched) {
+                assertTrue(BruteForce.distance(point, c) > BruteForce.distance(point, touched),
+                        "tangent does not touch the closest corner");
+            }
+        }
+    }
+}
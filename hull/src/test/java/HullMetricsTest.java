@@ -0,0 +1,77 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/*
+ * Checks that findHullPar reports every phase of HullMetrics once per call,
+ * in order, however the hull was created and whichever way the call goes.
+ */
+class HullMetricsTest {
+    static HullEngine engine;
+
+    @BeforeAll
+    static void startEngine() {
+        engine = new HullEngine(4);
+        engine.setForkThreshold(4);
+    }
+
+    @AfterAll
+    static void closeEngine() {
+        engine.close();
+    }
+
+    static List<TestPoints> datasets() {
+        return TestPoints.all();
+    }
+
+    // Metrics which remember the phases they are told about
+    static class Phases implements HullMetrics {
+        final List<Phase> phases = new ArrayList<>();
+        final List<Long> nanos = new ArrayList<>();
+        final List<Integer> points = new ArrayList<>();
+
+        @Override
+        public synchronized void phase(Phase phase, int points, long nanos) {
+            this.phases.add(phase);
+            this.points.add(points);
+            this.nanos.add(nanos);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("datasets")
+    void everyPhaseIsReportedOncePerCall(TestPoints p) {
+        Phases phases = new Phases();
+        engine.setMetrics(phases);
+        try {
+            ConvexHull[] hulls = { new ConvexHull(p.n, p.x, p.y), new ConvexHull(p.n, p.x, p.y, engine) };
+            for (ConvexHull hull : hulls) {
+                for (int call = 0; call < 2; call++) {
+                    phases.phases.clear();
+                    phases.points.clear();
+                    phases.nanos.clear();
+                    IntList coHull = hull.findHullPar(engine);
+
+                    assertEquals(List.of(HullMetrics.Phase.values()), phases.phases);
+                    assertEquals(p.n, phases.points.get(HullMetrics.Phase.EXTREMES.ordinal()));
+                    assertEquals(p.n, phases.points.get(HullMetrics.Phase.PARTITION.ordinal()));
+                    assertEquals(coHull.size(), phases.points.get(HullMetrics.Phase.ASSEMBLY.ordinal()));
+                    long extremes = phases.nanos.get(HullMetrics.Phase.EXTREMES.ordinal());
+                    assertTrue(call == 0 ? extremes >= 0 : extremes == 0, "call " + call);
+                    for (long nanos : phases.nanos) {
+                        assertTrue(nanos >= 0);
+                    }
+                }
+            }
+        } finally {
+            engine.setMetrics(HullMetrics.NONE);
+        }
+    }
+}
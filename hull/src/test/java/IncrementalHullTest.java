@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/*
+ * Checks the corners of IncrementalHull against gift wrapping, with the points
+ * added in batches of random sizes.
+ */
+class IncrementalHullTest {
+    static HullEngine engine;
+
+    @BeforeAll
+    static void startEngine() {
+        engine = new HullEngine(4);
+    }
+
+    @AfterAll
+    static void closeEngine() {
+        engine.close();
+    }
+
+    static List<TestPoints> datasets() {
+        return TestPoints.small();
+    }
+
+    @ParameterizedTest
+    @MethodSource("datasets")
+    void cornersMatchBruteForce(TestPoints p) {
+        long[] expected = BruteForce.corners(p.n, p.x, p.y);
+        Random r = new Random(p.n);
+        for (HullEngine e : new HullEngine[] { null, engine }) {
+            IncrementalHull hull = new IncrementalHull(e);
+            int i = 0;
+            while (i < p.n) {
+                int count = Math.min(p.n - i, 1 + r.nextInt(100));
+                hull.addPoints(Arrays.copyOfRange(p.x, i, i + count), Arrays.copyOfRange(p.y, i, i + count), count);
+                i += count;
+            }
+            assertArrayEquals(expected, hull.corners());
+            assertEquals(expected.length, hull.size());
+            assertEquals(p.n, hull.pointsSeen());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("datasets")
+    void packedPointsMatchBruteForce(TestPoints p) {
+        long[] points = PackedPoints.pack(p.n, p.x, p.y);
+        IncrementalHull hull = new IncrementalHull(engine);
+        int half = p.n / 2;
+        hull.addPoints(LongBuffer.wrap(points, 0, half));
+        hull.addPoints(LongBuffer.wrap(points, half, p.n - half));
+        assertArrayEquals(BruteForce.corners(p.n, p.x, p.y), hull.corners());
+    }
+}
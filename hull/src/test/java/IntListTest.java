@@ -0,0 +1,72 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Checks the sorts of IntList against Arrays.sort with a comparator, which is
+ * stable, so points at the same distance must keep their order.
+ */
+class IntListTest {
+
+    static int[] sortedByKeys(int[] a, long[] keys) {
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> keys[i]));
+        int[] sorted = new int[a.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = a[order[i]];
+        }
+        return sorted;
+    }
+
+    @Test
+    void sortByDistanceFromIsStable() {
+        Random r = new Random(6);
+        for (int len : new int[] { 0, 1, 2, 31, 1000, IntList.PARALLEL_SORT_THRESHOLD + 5 }) {
+            int[] x = new int[len], y = new int[len];
+            for (int i = 0; i < len; i++) {
+                int t = r.nextInt(Math.max(1, len / 4));
+                x[i] = 3 * t;
+                y[i] = -2 * t;
+            }
+            int[] a = new int[len];
+            long[] keys = new long[len];
+            for (int i = 0; i < len; i++) {
+                a[i] = len - 1 - i;
+                keys[i] = Math.abs((long) x[a[i]] - 5) + Math.abs((long) y[a[i]] + 1);
+            }
+            int[] expected = sortedByKeys(a, keys);
+            IntList.sortByDistanceFrom(a, 0, len, 5, -1, x, y);
+            assertArrayEquals(expected, a, "length " + len);
+        }
+    }
+
+    @Test
+    void sortByKeysIsStable() {
+        Random r = new Random(6);
+        for (int len : new int[] { 1, 2, 31, 32, 33, 1000, 4099 }) {
+            for (int range : new int[] { 3, 1 << 20, Integer.MAX_VALUE }) {
+                int[] a = new int[len + 3];
+                long[] keys = new long[len];
+                for (int i = 0; i < a.length; i++) {
+                    a[i] = r.nextInt();
+                }
+                for (int i = 0; i < len; i++) {
+                    keys[i] = (long) r.nextInt(range) << 3;
+                }
+                int[] expected = sortedByKeys(Arrays.copyOfRange(a, 2, 2 + len), keys);
+                int[] head = Arrays.copyOf(a, 2), tail = Arrays.copyOfRange(a, 2 + len, a.length);
+                IntList.sortByKeys(a, 2, keys);
+                assertArrayEquals(expected, Arrays.copyOfRange(a, 2, 2 + len), len + " keys below " + range);
+                assertArrayEquals(head, Arrays.copyOf(a, 2));
+                assertArrayEquals(tail, Arrays.copyOfRange(a, 2 + len, a.length));
+            }
+        }
+    }
+}
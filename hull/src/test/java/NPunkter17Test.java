@@ -0,0 +1,57 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/*
+ * Checks that the parallel generator hands out distinct points in the plane of
+ * the sequential one, and the same points with any number of threads.
+ */
+class NPunkter17Test {
+
+    @ParameterizedTest
+    @ValueSource(ints = { 0, 1, 7, 1000, 200_000 })
+    void fyllArrayerParIsDeterministic(int n) {
+        int[][] first = null;
+        for (int threads : new int[] { 1, 3, 8 }) {
+            int[] x = new int[n], y = new int[n];
+            try (HullEngine engine = new HullEngine(threads)) {
+                new NPunkter17(n, 5).fyllArrayerPar(x, y, engine);
+            }
+            if (first == null) {
+                first = new int[][] { x, y };
+                checkDistinct(n, x, y);
+            } else {
+                assertArrayEquals(first[0], x, threads + " threads");
+                assertArrayEquals(first[1], y, threads + " threads");
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 1000 })
+    void fyllArrayerParOnlyOnce(int n) {
+        NPunkter17 generator = new NPunkter17(n, 5);
+        try (HullEngine engine = new HullEngine(2)) {
+            generator.fyllArrayerPar(new int[n], new int[n], engine);
+            assertThrows(IllegalStateException.class, () -> generator.fyllArrayerPar(new int[n], new int[n], engine));
+        }
+    }
+
+    static void checkDistinct(int n, int[] x, int[] y) {
+        NPunkter17 generator = new NPunkter17(n, 5);
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            assertTrue(x[i] >= 1 && x[i] <= generator.maxXY && y[i] >= 1 && y[i] <= generator.maxXY);
+            assertTrue(Math.abs(x[i] - generator.xCentre) + Math.abs(y[i] - generator.yCentre) <= generator.maxVal);
+            assertTrue(seen.add(PackedPoints.pack(x[i], y[i])), "point " + i + " is repeated");
+        }
+        assertEquals(n, seen.size());
+    }
+}
@@ -0,0 +1,124 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/*
+ * Checks that point files hold the points written to them, and that the
+ * batches of NPunkter17 they are written from are the points of one call.
+ */
+class PointFileTest {
+    @TempDir
+    Path dir;
+
+    static Iterable<TestPoints> datasets() {
+        return TestPoints.small();
+    }
+
+    @ParameterizedTest
+    @MethodSource("datasets")
+    void hullOfFileMatchesBruteForce(TestPoints p) throws IOException {
+        Path path = dir.resolve("points");
+        try (PointFile.Writer writer = new PointFile.Writer(path)) {
+            // Written in uneven batches, the last one from the middle of the arrays
+            int done = 0;
+            for (int batch = 1; done < p.n; batch = 2 * batch + 1) {
+                int count = Math.min(batch, p.n - done);
+                int[] x = new int[count + 2], y = new int[count + 2];
+                System.arraycopy(p.x, done, x, 0, count);
+                System.arraycopy(p.y, done, y, 0, count);
+                writer.write(x, y, count);
+                done += count;
+            }
+        }
+
+        PointFile file = PointFile.open(path);
+        assertEquals(p.n, file.n);
+        if (p.n > 0) {
+            assertEquals(min(p.x), file.minX);
+            assertEquals(max(p.x), file.maxX);
+            assertEquals(min(p.y), file.minY);
+            assertEquals(max(p.y), file.maxY);
+        }
+        assertArrayEquals(BruteForce.corners(p.n, p.x, p.y), file.hull(null).corners());
+    }
+
+    @Test
+    void convertWritesTheGeneratedPoints() throws IOException {
+        // More than one segment, so the hull maps the file more than once
+        int n = PointFile.SEGMENT_POINTS + 1000;
+        Path path = dir.resolve("generated");
+        PointFile.convert(n, 3, path);
+
+        int[] x = new int[n], y = new int[n];
+        new NPunkter17(n, 3).fyllArrayer(x, y);
+        IncrementalHull expected = new IncrementalHull();
+        expected.addPoints(x, y, n);
+        try (HullEngine engine = new HullEngine(4)) {
+            PointFile file = PointFile.open(path);
+            assertEquals(n, file.n);
+            assertArrayEquals(expected.corners(), file.hull(engine).corners());
+            assertEquals(n, file.hull(null).pointsSeen());
+        }
+    }
+
+    @Test
+    void batchesAreThePointsOfOneCall() {
+        int n = 10_000;
+        int[] x = new int[n], y = new int[n];
+        new NPunkter17(n, 9).fyllArrayer(x, y);
+
+        NPunkter17 generator = new NPunkter17(n, 9);
+        int[] bx = new int[4000], by = new int[4000];
+        for (int done = 0, batch = 1; done < n; done += batch, batch = Math.min(Math.min(2 * batch, bx.length), n - done)) {
+            generator.fyllArrayer(bx, by, batch);
+            for (int i = 0; i < batch; i++) {
+                assertEquals(x[done + i], bx[i]);
+                assertEquals(y[done + i], by[i]);
+            }
+        }
+        assertThrows(IllegalStateException.class, () -> generator.fyllArrayer(bx, by, 1));
+        assertThrows(IllegalStateException.class, () -> generator.fyllArrayer(new int[n], new int[n]));
+    }
+
+    @Test
+    void rejectsFilesWhichAreNotPointFiles() throws IOException {
+        Path text = dir.resolve("text");
+        Files.writeString(text, "not a point file, but longer than the header is");
+        assertThrows(IOException.class, () -> PointFile.open(text));
+
+        // A header which promises more points than the file holds
+        Path path = dir.resolve("short");
+        try (PointFile.Writer writer = new PointFile.Writer(path)) {
+            writer.write(new int[] { 1, 2, 3 }, new int[] { 4, 5, 6 }, 3);
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> PointFile.open(path));
+    }
+
+    static int min(int[] a) {
+        int min = a[0];
+        for (int v : a) {
+            min = Math.min(min, v);
+        }
+        return min;
+    }
+
+    static int max(int[] a) {
+        int max = a[0];
+        for (int v : a) {
+            max = Math.max(max, v);
+        }
+        return max;
+    }
+}
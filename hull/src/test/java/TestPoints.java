@@ -0,0 +1,184 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * The datasets the tests run on, chosen for the cases the algorithms get wrong
+ * most easily: points on a grid, on a line, repeated points, coordinates
+ * spread over the whole int range, and datasets with fewer than three points.
+ */
+class TestPoints {
+    final String name;
+    final int n;
+    final int[] x, y;
+
+    TestPoints(String name, int[] x, int[] y) {
+        this.name = name;
+        this.n = x.length;
+        this.x = x;
+        this.y = y;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (n = " + n + ")";
+    }
+
+    /*
+     * Returns all the datasets. The large ones have enough points for the
+     * parallel passes to split them into several chunks.
+     */
+    static List<TestPoints> all() {
+        Random r = new Random(42);
+        List<TestPoints> all = new ArrayList<>();
+        all.add(new TestPoints("empty", new int[0], new int[0]));
+        all.add(new TestPoints("one point", new int[] { 3 }, new int[] { 4 }));
+        all.add(new TestPoints("two points", new int[] { 3, -1 }, new int[] { 4, 7 }));
+        all.add(new TestPoints("triangle", new int[] { 0, 10, 5 }, new int[] { 0, 0, 8 }));
+        all.add(uniform("small grid", 3000, 20, r));
+        all.add(uniform("uniform", 5000, 1_000_000, r));
+        all.add(full("full int range", 5000, r));
+        all.add(collinear("collinear", 2000, r));
+        all.add(nearlyCollinear("nearly collinear", 2000, r));
+        all.add(repeated("repeated points", 1500, 3, r));
+        all.add(square("square with edges", 4000, r));
+        all.add(circle("circle", 4000, 1_000_000, r));
+        all.add(generated("NPunkter17", 100_000, 7));
+        all.add(uniform("large uniform", 200_000, 1 << 20, r));
+        return all;
+    }
+
+    /*
+     * Returns datasets of the same kinds, small enough to check against the
+     * brute force algorithms of BruteForce.
+     */
+    static List<TestPoints> small() {
+        Random r = new Random(7);
+        List<TestPoints> small = new ArrayList<>();
+        small.add(new TestPoints("empty", new int[0], new int[0]));
+        small.add(new TestPoints("one point", new int[] { 3 }, new int[] { 4 }));
+        small.add(new TestPoints("two points", new int[] { 3, -1 }, new int[] { 4, 7 }));
+        small.add(new TestPoints("triangle", new int[] { 0, 10, 5 }, new int[] { 0, 0, 8 }));
+        small.add(uniform("small grid", 400, 8, r));
+        small.add(uniform("uniform", 500, 1_000_000, r));
+        small.add(full("full int range", 500, r));
+        small.add(collinear("collinear", 200, r));
+        small.add(nearlyCollinear("nearly collinear", 200, r));
+        small.add(repeated("repeated points", 150, 3, r));
+        small.add(square("square with edges", 400, r));
+        small.add(circle("circle", 300, 1_000_000, r));
+        small.add(generated("NPunkter17", 1000, 3));
+        return small;
+    }
+
+    static TestPoints uniform(String name, int n, int range, Random r) {
+        int[] x = new int[n], y = new int[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = r.nextInt(range);
+            y[i] = r.nextInt(range);
+        }
+        return new TestPoints(name, x, y);
+    }
+
+    /*
+     * Points anywhere in the int range, with the four corners of the range among
+     * them, so the cross products overflow a long.
+     */
+    static TestPoints full(String name, int n, Random r) {
+        int[] x = new int[n], y = new int[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = r.nextInt();
+            y[i] = r.nextInt();
+        }
+        int[] cornersX = { Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE };
+        int[] cornersY = { Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE };
+        for (int c = 0; c < 4; c++) {
+            int i = r.nextInt(n);
+            x[i] = cornersX[c];
+            y[i] = cornersY[c];
+        }
+        return new TestPoints(name, x, y);
+    }
+
+    /*
+     * Points on one line, some of them at the same place.
+     */
+    static TestPoints collinear(String name, int n, Random r) {
+        int[] x = new int[n], y = new int[n];
+        for (int i = 0; i < n; i++) {
+            int t = r.nextInt(n / 2);
+            x[i] = 3 * t - 100;
+            y[i] = 2 * t + 5;
+        }
+        return new TestPoints(name, x, y);
+    }
+
+    /*
+     * Points on one line but a few on each side of it, so most of the hull is
+     * long runs of points on two edges.
+     */
+    static TestPoints nearlyCollinear(String name, int n, Random r) {
+        TestPoints points = collinear(name, n, r);
+        for (int k = 0; k < 6; k++) {
+            int i = r.nextInt(n);
+            points.y[i] += k % 2 == 0 ? 1 + r.nextInt(3) : -1 - r.nextInt(3);
+        }
+        return points;
+    }
+
+    /*
+     * Uniform points, every one repeated a number of times in random order.
+     */
+    static TestPoints repeated(String name, int distinct, int times, Random r) {
+        TestPoints points = uniform(name, distinct, 50, r);
+        int n = distinct * times;
+        int[] x = new int[n], y = new int[n];
+        for (int i = 0; i < n; i++) {
+            int p = r.nextInt(distinct);
+            x[i] = points.x[p];
+            y[i] = points.y[p];
+        }
+        return new TestPoints(name, x, y);
+    }
+
+    /*
+     * Points on the four edges of a square and inside it.
+     */
+    static TestPoints square(String name, int n, Random r) {
+        int[] x = new int[n], y = new int[n];
+        for (int i = 0; i < n; i++) {
+            int t = r.nextInt(100);
+            int side = r.nextInt(5);
+            if (side == 4) {
+                x[i] = 1 + r.nextInt(98);
+                y[i] = 1 + r.nextInt(98);
+            } else {
+                x[i] = side == 0 || side == 2 ? t : side == 1 ? 99 : 0;
+                y[i] = side == 1 || side == 3 ? t : side == 2 ? 99 : 0;
+            }
+        }
+        return new TestPoints(name, x, y);
+    }
+
+    /*
+     * Points on a circle, so most of them are on the hull.
+     */
+    static TestPoints circle(String name, int n, int radius, Random r) {
+        int[] x = new int[n], y = new int[n];
+        for (int i = 0; i < n; i++) {
+            double angle = r.nextDouble() * 2 * Math.PI;
+            x[i] = (int) Math.round(radius * Math.cos(angle));
+            y[i] = (int) Math.round(radius * Math.sin(angle));
+        }
+        return new TestPoints(name, x, y);
+    }
+
+    /*
+     * The points of the program, on a narrow grid.
+     */
+    static TestPoints generated(String name, int n, int seed) {
+        int[] x = new int[n], y = new int[n];
+        new NPunkter17(n, seed).fyllArrayer(x, y);
+        return new TestPoints(name, x, y);
+    }
+}
@@ -0,0 +1,76 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Checks that the Vector API kernel splits the points the same way as the
+ * scalar loop of ConvexHull.splitGroups. The tests run with
+ * --add-modules jdk.incubator.vector, so the kernel must be loaded.
+ */
+class VectorKernelTest {
+
+    @Test
+    void kernelIsLoaded() {
+        assertNotNull(ConvexHull.VECTOR_KERNEL);
+    }
+
+    @Test
+    void kernelMatchesScalarLoop() {
+        Random r = new Random(7);
+        for (int run = 0; run < 200; run++) {
+            // Small grids have many ties, the widest datasets the fitsLong allows
+            // have cross products close to overflowing a long
+            int kind = run % 4;
+            int n = 1 + r.nextInt(run % 2 == 0 ? 40 : 3000);
+            int[] x = new int[n], y = new int[n];
+            for (int i = 0; i < n; i++) {
+                if (kind == 0) {
+                    x[i] = r.nextInt(10);
+                    y[i] = r.nextInt(10);
+                } else if (kind == 1) {
+                    x[i] = r.nextInt(1_000_000) - 500_000;
+                    y[i] = r.nextInt(1_000_000) - 500_000;
+                } else {
+                    x[i] = r.nextInt() >> 1;
+                    y[i] = r.nextInt() >> 1;
+                }
+            }
+            if (kind == 3) {
+                // Put the points of the lines at the corners of the range
+                int[] corners = { Integer.MIN_VALUE >> 1, Integer.MAX_VALUE >> 1 };
+                for (int c = 0; c < Math.min(n, 4); c++) {
+                    x[c] = corners[c & 1];
+                    y[c] = corners[c >> 1 & 1];
+                }
+            }
+            ConvexHull hull = new ConvexHull(n, x, y);
+            assertTrue(hull.narrow);
+
+            // The hull gives the kernel the points in the order of their indices
+            IntList m = new IntList(n);
+            for (int i = 0; i < n; i++) {
+                m.add(i);
+            }
+            int p1 = r.nextInt(n), p2 = r.nextInt(n), p3 = r.nextInt(n);
+            ConvexHull.Groups expected = hull.splitGroupsScalar(m, p1, p2, p3);
+            ConvexHull.Groups actual = new ConvexHull.Groups();
+            ConvexHull.VECTOR_KERNEL.splitGroups(m.data, m.len, x, y, p1, p2, p3, actual);
+
+            String message = "run " + run;
+            assertArrayEquals(Arrays.copyOf(expected.left.data, expected.left.len),
+                    Arrays.copyOf(actual.left.data, actual.left.len), message);
+            assertArrayEquals(Arrays.copyOf(expected.right.data, expected.right.len),
+                    Arrays.copyOf(actual.right.data, actual.right.len), message);
+            assertEquals(expected.farLeft, actual.farLeft, message);
+            assertEquals(expected.farRight, actual.farRight, message);
+            assertEquals(expected.leftDistance, actual.leftDistance, message);
+            assertEquals(expected.rightDistance, actual.rightDistance, message);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package convexhull.bench;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Runs the benchmarks like the JMH main class, with the same command line
+ * options, but always with the GC profiler. Every result then also has the
+ * allocation rate and bytes allocated per operation, so a change which makes
+ * the algorithms allocate more shows up even if the time does not change.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws CommandLineOptionException, IOException, RunnerException {
+        CommandLineOptions options = new CommandLineOptions(args);
+        if (options.shouldHelp()) {
+            options.showHelp();
+            return;
+        }
+        Runner runner = new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build());
+        if (options.shouldList()) {
+            runner.list();
+            return;
+        }
+        runner.run();
+    }
+}
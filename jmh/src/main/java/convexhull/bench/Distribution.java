@@ -0,0 +1,81 @@
+package convexhull.bench;
+
+import java.util.Random;
+
+/*
+ * The point distributions the benchmarks are run on. They stress different
+ * parts of the algorithm: the size of the hull, how deep the recursion goes and
+ * how many points end up on the hull edges.
+ */
+public enum Distribution {
+    // Uniform in a disk, the hull grows slowly with n
+    DISK,
+    // On a circle, rounded to the nearest integer point, so most points are on
+    // the hull and the recursion is as deep as it gets
+    CIRCLE,
+    // Gaussian clusters around a few random centers
+    CLUSTERED,
+    // The cells of a square grid in random order, with long runs of collinear
+    // points on the hull edges
+    GRID;
+
+    private static final int RADIUS = 1 << 24;
+    private static final int CLUSTERS = 16;
+
+    /*
+     * Generates n points with the given seed.
+     * 
+     * @return The x-coordinates in [0] and the y-coordinates in [1]
+     */
+    int[][] generate(int n, long seed) {
+        Random random = new Random(seed);
+        int[] x = new int[n];
+        int[] y = new int[n];
+        switch (this) {
+            case DISK:
+                for (int i = 0; i < n; i++) {
+                    double r = RADIUS * Math.sqrt(random.nextDouble());
+                    double angle = 2 * Math.PI * random.nextDouble();
+                    x[i] = (int) Math.round(r * Math.cos(angle));
+                    y[i] = (int) Math.round(r * Math.sin(angle));
+                }
+                break;
+            case CIRCLE:
+                for (int i = 0; i < n; i++) {
+                    double angle = 2 * Math.PI * random.nextDouble();
+                    x[i] = (int) Math.round(RADIUS * Math.cos(angle));
+                    y[i] = (int) Math.round(RADIUS * Math.sin(angle));
+                }
+                break;
+            case CLUSTERED:
+                int[] cx = new int[CLUSTERS];
+                int[] cy = new int[CLUSTERS];
+                for (int c = 0; c < CLUSTERS; c++) {
+                    cx[c] = random.nextInt(RADIUS);
+                    cy[c] = random.nextInt(RADIUS);
+                }
+                for (int i = 0; i < n; i++) {
+                    int c = random.nextInt(CLUSTERS);
+                    x[i] = cx[c] + (int) Math.round(random.nextGaussian() * RADIUS / 64);
+                    y[i] = cy[c] + (int) Math.round(random.nextGaussian() * RADIUS / 64);
+                }
+                break;
+            case GRID:
+                int side = (int) Math.ceil(Math.sqrt(n));
+                for (int i = 0; i < n; i++) {
+                    x[i] = i % side;
+                    y[i] = i / side;
+                }
+                for (int i = n - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int tx = x[i], ty = y[i];
+                    x[i] = x[j];
+                    y[i] = y[j];
+                    x[j] = tx;
+                    y[j] = ty;
+                }
+                break;
+        }
+        return new int[][] { x, y };
+    }
+}
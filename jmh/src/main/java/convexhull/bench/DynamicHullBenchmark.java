@@ -0,0 +1,90 @@
+package convexhull.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * One step of a sliding window: the oldest point leaves, a new one arrives and
+ * the hull of the window is listed. DynamicHull removes and adds the point,
+ * the other benchmark finds the hull of the whole window again with
+ * findHullSeq.
+ * 
+ * The points arrive from a stream of twice the window, which starts over when
+ * it runs out, so the window never holds the same point twice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class DynamicHullBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int window;
+
+    @Param({ "DISK", "CIRCLE", "CLUSTERED", "GRID" })
+    public Distribution distribution;
+
+    private int[] streamX, streamY; // The points as they arrive
+    private int[] x, y; // The points of the window, point i in slot i % window
+    private Object hull;
+    private int step;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        int[][] points = distribution.generate(2 * window, 42);
+        streamX = points[0];
+        streamY = points[1];
+        x = new int[window];
+        y = new int[window];
+        hull = (Object) Hull.NEW_DYNAMIC_HULL.invokeExact(x, y);
+        for (int i = 0; i < window; i++) {
+            x[i] = streamX[i];
+            y[i] = streamY[i];
+            Hull.DYNAMIC_ADD.invokeExact(hull, i);
+        }
+        step = 0;
+    }
+
+    @Benchmark
+    public Object dynamic() throws Throwable {
+        int slot = step % window;
+        boolean removed = (boolean) Hull.DYNAMIC_REMOVE.invokeExact(hull, slot);
+        if (!removed) {
+            throw new IllegalStateException("Slot " + slot + " is not in the hull");
+        }
+        next(slot);
+        Hull.DYNAMIC_ADD.invokeExact(hull, slot);
+        return (Object) Hull.DYNAMIC_CORNERS.invokeExact(hull);
+    }
+
+    @Benchmark
+    public Object rebuild() throws Throwable {
+        next(step % window);
+        Object convexHull = (Object) Hull.NEW_CONVEX_HULL.invokeExact(window, x, y);
+        return (Object) Hull.FIND_HULL_SEQ.invokeExact(convexHull);
+    }
+
+    /*
+     * Puts the next point of the stream in a slot of the window.
+     */
+    private void next(int slot) {
+        int p = (step + window) % streamX.length;
+        x[slot] = streamX[p];
+        y[slot] = streamY[p];
+        step++;
+    }
+}
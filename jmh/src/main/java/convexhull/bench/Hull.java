@@ -0,0 +1,109 @@
+package convexhull.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/*
+ * Method handles to the hull classes. They are in the unnamed package, which
+ * can not be imported, and JMH does not allow benchmarks in the unnamed
+ * package, so the benchmarks reach them through these handles. The handles are
+ * static final, so the JIT compiler inlines them like direct calls.
+ * 
+ * The hull classes and their private methods are looked up by name, so the
+ * benchmarks have to be updated along with them.
+ */
+final class Hull {
+    // (int n, int[] x, int[] y) -> ConvexHull
+    static final MethodHandle NEW_CONVEX_HULL;
+    // (ConvexHull) -> IntList
+    static final MethodHandle FIND_HULL_SEQ;
+    // (ConvexHull) -> IntList
+    static final MethodHandle FIND_HULL_IN_PLACE;
+    // (int numThreads) -> HullEngine
+    static final MethodHandle NEW_HULL_ENGINE;
+    // (HullEngine, int n, int[] x, int[] y) -> IntList
+    static final MethodHandle ENGINE_FIND_HULL;
+    // (ConvexHull, int p1, int p2, int from, int to, Octagon) -> ConvexHull.Split
+    static final MethodHandle SPLIT;
+    // (ConvexHull.Split) -> IntList
+    static final MethodHandle SPLIT_ABOVE;
+    // (ConvexHull.Split) -> int
+    static final MethodHandle SPLIT_FAR_ABOVE;
+    // (ConvexHull, IntList m, int p1, int p2, int p3) -> ConvexHull.Groups
+    static final MethodHandle SPLIT_GROUPS;
+    // (int[] a, int from, int to, int relativePoint, int[] x, int[] y)
+    static final MethodHandle SORT_BY_DISTANCE_FROM;
+    // (IntList) -> int
+    static final MethodHandle SIZE;
+    // (int[] x, int[] y) -> DynamicHull
+    static final MethodHandle NEW_DYNAMIC_HULL;
+    // (DynamicHull, int p)
+    static final MethodHandle DYNAMIC_ADD;
+    // (DynamicHull, int p) -> boolean
+    static final MethodHandle DYNAMIC_REMOVE;
+    // (DynamicHull) -> IntList
+    static final MethodHandle DYNAMIC_CORNERS;
+
+    static {
+        try {
+            Class<?> convexHull = Class.forName("ConvexHull");
+            Class<?> hullEngine = Class.forName("HullEngine");
+            Class<?> intList = Class.forName("IntList");
+            Class<?> split = Class.forName("ConvexHull$Split");
+            Class<?> octagon = Class.forName("Octagon");
+            Class<?> dynamicHull = Class.forName("DynamicHull");
+            MethodHandles.Lookup hull = MethodHandles.privateLookupIn(convexHull, MethodHandles.lookup());
+            MethodHandles.Lookup engine = MethodHandles.privateLookupIn(hullEngine, MethodHandles.lookup());
+            MethodHandles.Lookup list = MethodHandles.privateLookupIn(intList, MethodHandles.lookup());
+            MethodHandles.Lookup splitLookup = MethodHandles.privateLookupIn(split, MethodHandles.lookup());
+            MethodHandles.Lookup dynamic = MethodHandles.privateLookupIn(dynamicHull, MethodHandles.lookup());
+
+            NEW_CONVEX_HULL = erase(hull.findConstructor(convexHull,
+                    MethodType.methodType(void.class, int.class, int[].class, int[].class)));
+            FIND_HULL_SEQ = erase(hull.findVirtual(convexHull, "findHullSeq", MethodType.methodType(intList)));
+            FIND_HULL_IN_PLACE = erase(hull.findVirtual(convexHull, "findHullInPlace", MethodType.methodType(intList)));
+            NEW_HULL_ENGINE = erase(engine.findConstructor(hullEngine, MethodType.methodType(void.class, int.class)));
+            ENGINE_FIND_HULL = erase(engine.findVirtual(hullEngine, "findHull",
+                    MethodType.methodType(intList, int.class, int[].class, int[].class)));
+            SPLIT = erase(hull.findVirtual(convexHull, "split",
+                    MethodType.methodType(split, int.class, int.class, int.class, int.class, octagon)));
+            SPLIT_ABOVE = erase(splitLookup.findGetter(split, "above", intList));
+            SPLIT_FAR_ABOVE = erase(splitLookup.findGetter(split, "farAbove", int.class));
+            SPLIT_GROUPS = erase(hull.findVirtual(convexHull, "splitGroups",
+                    MethodType.methodType(Class.forName("ConvexHull$Groups"), intList, int.class, int.class,
+                            int.class)));
+            SORT_BY_DISTANCE_FROM = list.findStatic(intList, "sortByDistanceFrom", MethodType.methodType(void.class,
+                    int[].class, int.class, int.class, int.class, int[].class, int[].class));
+            SIZE = erase(list.findVirtual(intList, "size", MethodType.methodType(int.class)));
+            NEW_DYNAMIC_HULL = erase(dynamic.findConstructor(dynamicHull,
+                    MethodType.methodType(void.class, int[].class, int[].class)));
+            DYNAMIC_ADD = erase(dynamic.findVirtual(dynamicHull, "add", MethodType.methodType(void.class, int.class)));
+            DYNAMIC_REMOVE = erase(dynamic.findVirtual(dynamicHull, "remove",
+                    MethodType.methodType(boolean.class, int.class)));
+            DYNAMIC_CORNERS = erase(dynamic.findVirtual(dynamicHull, "corners", MethodType.methodType(intList)));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Hull() {
+    }
+
+    /*
+     * Replaces the hull classes in the type of the handle with Object, so the
+     * benchmarks can call it with invokeExact. Arrays and primitives are kept.
+     */
+    private static MethodHandle erase(MethodHandle handle) {
+        MethodType type = handle.type();
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (!type.parameterType(i).isPrimitive() && !type.parameterType(i).isArray()) {
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+        if (!type.returnType().isPrimitive() && !type.returnType().isArray()) {
+            type = type.changeReturnType(Object.class);
+        }
+        return handle.asType(type);
+    }
+}
@@ -0,0 +1,57 @@
+package convexhull.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * The sequential hull algorithms, from the creation of the ConvexHull to the
+ * finished hull. The points are generated once per trial, so only the hull is
+ * measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class HullBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int n;
+
+    @Param({ "DISK", "CIRCLE", "CLUSTERED", "GRID" })
+    public Distribution distribution;
+
+    private int[] x, y;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        int[][] points = distribution.generate(n, 42);
+        x = points[0];
+        y = points[1];
+    }
+
+    @Benchmark
+    public Object findHullSeq() throws Throwable {
+        Object hull = (Object) Hull.NEW_CONVEX_HULL.invokeExact(n, x, y);
+        return (Object) Hull.FIND_HULL_SEQ.invokeExact(hull);
+    }
+
+    @Benchmark
+    public Object findHullInPlace() throws Throwable {
+        Object hull = (Object) Hull.NEW_CONVEX_HULL.invokeExact(n, x, y);
+        return (Object) Hull.FIND_HULL_IN_PLACE.invokeExact(hull);
+    }
+}
@@ -0,0 +1,82 @@
+package convexhull.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * The inner loops of the hull algorithms on their own. splitGroups is run on
+ * the points above the line between the leftmost and the rightmost point, which
+ * is the largest call in the recursion. sortByDistanceFrom sorts all the points
+ * by their distance to the first one, on the grid most of them are on the same
+ * lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class KernelBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int n;
+
+    @Param({ "DISK", "CIRCLE", "CLUSTERED", "GRID" })
+    public Distribution distribution;
+
+    private int[] x, y;
+    private Object hull;
+    private Object above;
+    private int minX, maxX, farAbove;
+    private int[] indices, sorted;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        int[][] points = distribution.generate(n, 42);
+        x = points[0];
+        y = points[1];
+
+        hull = (Object) Hull.NEW_CONVEX_HULL.invokeExact(n, x, y);
+        for (int i = 1; i < n; i++) {
+            if (x[i] < x[minX]) {
+                minX = i;
+            }
+            if (x[i] > x[maxX]) {
+                maxX = i;
+            }
+        }
+        Object split = (Object) Hull.SPLIT.invokeExact(hull, minX, maxX, 0, n, (Object) null);
+        above = (Object) Hull.SPLIT_ABOVE.invokeExact(split);
+        farAbove = (int) Hull.SPLIT_FAR_ABOVE.invokeExact(split);
+
+        indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        sorted = new int[n];
+    }
+
+    @Benchmark
+    public Object splitGroups() throws Throwable {
+        return (Object) Hull.SPLIT_GROUPS.invokeExact(hull, above, minX, maxX, farAbove);
+    }
+
+    @Benchmark
+    public int[] sortByDistanceFrom() throws Throwable {
+        System.arraycopy(indices, 0, sorted, 0, n);
+        Hull.SORT_BY_DISTANCE_FROM.invokeExact(sorted, 0, n, 0, x, y);
+        return sorted;
+    }
+}
@@ -0,0 +1,61 @@
+package convexhull.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * The parallel hull algorithm with different numbers of threads. The engine is
+ * created once per trial, like a program would keep it for all its hulls, so
+ * starting the threads is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class ParallelHullBenchmark {
+
+    @Param({ "100000", "1000000" })
+    public int n;
+
+    @Param({ "DISK", "CIRCLE", "CLUSTERED", "GRID" })
+    public Distribution distribution;
+
+    @Param({ "1", "2", "4", "8" })
+    public int threads;
+
+    private int[] x, y;
+    private AutoCloseable engine;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        int[][] points = distribution.generate(n, 42);
+        x = points[0];
+        y = points[1];
+        engine = (AutoCloseable) (Object) Hull.NEW_HULL_ENGINE.invokeExact(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        engine.close();
+    }
+
+    @Benchmark
+    public Object findHullPar() throws Throwable {
+        return (Object) Hull.ENGINE_FIND_HULL.invokeExact((Object) engine, n, x, y);
+    }
+}
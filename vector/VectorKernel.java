@@ -0,0 +1,138 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+ * DistanceKernel using the incubating Vector API. The coordinates of a vector of
+ * points are gathered through the index list, widened to longs and the exact
+ * distances of all of them from both lines are computed at once. With AVX-512
+ * that is 8 points per instruction.
+ * 
+ * Compile and run with --add-modules jdk.incubator.vector. ConvexHull loads this
+ * class by name, so nothing else depends on the module.
+ */
+class VectorKernel implements DistanceKernel {
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    // Ints with as many lanes as LONGS, so one gather fills one long vector
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class,
+            VectorShape.forBitSize(LONGS.vectorBitSize() / 2));
+    private static final LongVector IOTA = LongVector.zero(LONGS).addIndex(1);
+
+    @Override
+    public void splitGroups(int[] points, int len, int[] x, int[] y, int p1, int p2, int p3,
+            ConvexHull.Groups groups) {
+        // distance = dx * (y' - y1) - dy * (x' - x1) = dx * y' - dy * x' + c for the
+        // line from (x1, y1). The terms may wrap around, but the sum fits in a long
+        // and so is exact.
+        long leftDx = (long) x[p3] - x[p1];
+        long leftDy = (long) y[p3] - y[p1];
+        long leftC = leftDy * x[p1] - leftDx * y[p1];
+        long rightDx = (long) x[p2] - x[p3];
+        long rightDy = (long) y[p2] - y[p3];
+        long rightC = rightDy * x[p3] - rightDx * y[p3];
+
+        // Every lane keeps its own maximum and where it was found. Only strictly
+        // larger distances replace it, so each lane keeps its first maximum.
+        LongVector leftMax = LongVector.zero(LONGS);
+        LongVector leftPos = LongVector.broadcast(LONGS, -1);
+        LongVector rightMax = LongVector.zero(LONGS);
+        LongVector rightPos = LongVector.broadcast(LONGS, -1);
+        int lanes = LONGS.length();
+        int i = 0;
+        for (; i <= len - lanes; i += lanes) {
+            IntVector indices = IntVector.fromArray(INTS, points, i);
+            VectorMask<Long> ends = indices.eq(p1).or(indices.eq(p2)).or(indices.eq(p3)).cast(LONGS);
+            LongVector xs = (LongVector) IntVector.fromArray(INTS, x, 0, points, i)
+                    .convertShape(VectorOperators.I2L, LONGS, 0);
+            LongVector ys = (LongVector) IntVector.fromArray(INTS, y, 0, points, i)
+                    .convertShape(VectorOperators.I2L, LONGS, 0);
+
+            LongVector left = ys.mul(leftDx).sub(xs.mul(leftDy)).add(leftC);
+            VectorMask<Long> inLeft = left.compare(VectorOperators.GE, 0).andNot(ends);
+            LongVector right = ys.mul(rightDx).sub(xs.mul(rightDy)).add(rightC);
+            VectorMask<Long> inRight = right.compare(VectorOperators.GE, 0).andNot(ends).andNot(inLeft);
+
+            if (inLeft.anyTrue()) {
+                VectorMask<Long> further = left.compare(VectorOperators.GT, leftMax, inLeft);
+                leftMax = leftMax.blend(left, further);
+                leftPos = leftPos.blend(IOTA.add(i), further);
+                addLanes(inLeft.toLong(), points, i, groups.left);
+            }
+            if (inRight.anyTrue()) {
+                VectorMask<Long> further = right.compare(VectorOperators.GT, rightMax, inRight);
+                rightMax = rightMax.blend(right, further);
+                rightPos = rightPos.blend(IOTA.add(i), further);
+                addLanes(inRight.toLong(), points, i, groups.right);
+            }
+        }
+
+        int leftBest = firstMax(leftMax, leftPos);
+        int rightBest = firstMax(rightMax, rightPos);
+        long leftDistance = leftBest == -1 ? 0 : leftMax.lane(leftBest);
+        long rightDistance = rightBest == -1 ? 0 : rightMax.lane(rightBest);
+        int farLeft = leftBest == -1 ? -1 : points[(int) leftPos.lane(leftBest)];
+        int farRight = rightBest == -1 ? -1 : points[(int) rightPos.lane(rightBest)];
+
+        for (; i < len; i++) {
+            int p = points[i];
+            if (p == p1 || p == p2 || p == p3) {
+                continue;
+            }
+            long distance = leftDx * y[p] - leftDy * x[p] + leftC;
+            if (distance >= 0) {
+                groups.left.add(p);
+                if (distance > leftDistance) {
+                    leftDistance = distance;
+                    farLeft = p;
+                }
+                continue;
+            }
+            distance = rightDx * y[p] - rightDy * x[p] + rightC;
+            if (distance >= 0) {
+                groups.right.add(p);
+                if (distance > rightDistance) {
+                    rightDistance = distance;
+                    farRight = p;
+                }
+            }
+        }
+
+        groups.farLeft = farLeft;
+        groups.leftDistance = -leftDistance;
+        groups.farRight = farRight;
+        groups.rightDistance = -rightDistance;
+    }
+
+    /*
+     * Returns the lane with the largest maximum, the one found first on ties, or
+     * -1 if no lane found a point with a positive distance.
+     */
+    private static int firstMax(LongVector max, LongVector pos) {
+        long best = 0;
+        long bestPos = -1;
+        int bestLane = -1;
+        for (int lane = 0; lane < LONGS.length(); lane++) {
+            long m = max.lane(lane);
+            long p = pos.lane(lane);
+            if (p != -1 && (m > best || (m == best && p < bestPos))) {
+                best = m;
+                bestPos = p;
+                bestLane = lane;
+            }
+        }
+        return bestLane;
+    }
+
+    /*
+     * Adds the points of the lanes set in the mask to the list, in lane order.
+     */
+    private static void addLanes(long mask, int[] points, int i, IntList list) {
+        while (mask != 0) {
+            list.add(points[i + Long.numberOfTrailingZeros(mask)]);
+            mask &= mask - 1;
+        }
+    }
+}